@@ -0,0 +1,317 @@
+package Initialization;
+
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserType;
+import com.microsoft.playwright.PlaywrightException;
+import config.DriverStartup;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared browser server support.
+ * One process runs a Playwright browser server (the driver's "launch-server" command, i.e.
+ * BrowserType.launchServer()): it launches a single browser up front, and every test JVM that
+ * connects with BrowserType.connect() opens its contexts in that same browser. A client's
+ * contexts are closed when it disconnects; the browser keeps running for the others.
+ * (The driver's "run-server" command is not used: it launches a browser per client.)
+ *
+ * Start a server for several forks or shard containers on one host, with a config file such as
+ * {"port": 3000, "wsPath": "/", "headless": true}:
+ *   mvn exec:java -Dexec.mainClass=com.microsoft.playwright.CLI -Dexec.args="launch-server --browser chromium --config server.json"
+ * and run the tests with -Dbrowser_server=ws://localhost:3000/
+ * With -Dbrowser_server=local a server is spawned from the test JVM with the configured browser
+ * and launch options (useful for local tests).
+ */
+public class BrowserServer {
+
+    private static final Logger logger = LoggerFactory.getLogger(BrowserServer.class);
+
+    private static final int SERVER_START_TIMEOUT = 30000; // 30 seconds
+    private static final int RECONNECT_DELAY = 1000; // 1 second
+    private static final long CONTEXT_SLOT_TIMEOUT = 60000; // 1 minute
+
+    private static final String LOCAL = "local";
+
+    private static final Map<Integer, Process> localServers = new ConcurrentHashMap<>();
+    private static boolean shutdownHookRegistered;
+    private static volatile Semaphore contextSlots;
+
+    // Server assigned to the current thread, e.g. one of several for load-test virtual users
+    private static final ThreadLocal<String> assignedEndpoint = new ThreadLocal<>();
+
+    private BrowserServer() {
+    }
+
+    /**
+     * Returns the endpoint to connect to: a "local" or "local:port" endpoint
+     * ({@link #localEndpoint}) starts a local server for the browser type first.
+     */
+    public static String resolve(String endpoint, BrowserType browserType, BrowserType.LaunchOptions launchOptions,
+                                 int defaultPort) {
+        if (endpoint.equalsIgnoreCase(LOCAL)) {
+            return startLocal(defaultPort, browserType.name(), launchOptions);
+        }
+        if (endpoint.startsWith(LOCAL + ":")) {
+            return startLocal(Integer.parseInt(endpoint.substring(LOCAL.length() + 1)), browserType.name(), launchOptions);
+        }
+        return endpoint;
+    }
+
+    /**
+     * Endpoint of a local server on the given port, started by the first client connecting to it.
+     */
+    public static String localEndpoint(int port) {
+        return LOCAL + ":" + port;
+    }
+
+    /**
+     * Starts a local browser server on the given port, or returns the running one.
+     * The server launches one browser with the given options, shared by all clients.
+     * The server is stopped when the JVM exits.
+     * @param browserName chromium, firefox or webkit
+     * @return The WebSocket endpoint to connect to
+     */
+    public static synchronized String startLocal(int port, String browserName, BrowserType.LaunchOptions launchOptions) {
+        String endpoint = "ws://localhost:" + port + "/";
+        Process running = localServers.get(port);
+        if (running != null && running.isAlive()) {
+            return endpoint;
+        }
+
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        String cliDir = System.getProperty("playwright.cli.dir");
+        if (cliDir != null) {
+            command.add("-Dplaywright.cli.dir=" + cliDir);
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add("com.microsoft.playwright.CLI");
+        command.add("launch-server");
+        command.add("--browser");
+        command.add(browserName);
+        command.add("--config");
+        command.add(writeServerConfig(port, launchOptions).toString());
+
+        try {
+            ProcessBuilder builder = new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(new File("target/browser-server-" + port + ".log"));
+            builder.environment().putAll(DriverStartup.driverEnvironment());
+
+            logger.info("Starting local {} browser server on port {}", browserName, port);
+            localServers.put(port, builder.start());
+            if (!shutdownHookRegistered) {
+                Runtime.getRuntime().addShutdownHook(new Thread(BrowserServer::stopLocal));
+                shutdownHookRegistered = true;
+            }
+            waitForPort(port);
+            logger.info("Local browser server ready: {}", endpoint);
+            return endpoint;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to start local browser server: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Writes the launchServer options: port, endpoint path and the browser's launch options.
+     */
+    private static Path writeServerConfig(int port, BrowserType.LaunchOptions launchOptions) {
+        JSONObject config = new JSONObject(launchOptionsHeader(launchOptions))
+                .put("port", port)
+                .put("wsPath", "/");
+        if (launchOptions.executablePath != null) {
+            config.put("executablePath", launchOptions.executablePath.toAbsolutePath().toString());
+        }
+        Path path = Paths.get("target", "browser-server-" + port + ".json");
+        try {
+            Files.createDirectories(path.getParent());
+            Files.writeString(path, config.toString(2), StandardCharsets.UTF_8);
+            return path.toAbsolutePath();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write browser server config " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Counts the browsers of all local servers.
+     */
+    public static long browserProcesses() {
+        return localServers.keySet().stream().mapToLong(BrowserServer::browserProcesses).sum();
+    }
+
+    /**
+     * Counts the browsers a local server has launched (processes started by its driver):
+     * 1 however many clients are connected.
+     */
+    public static synchronized long browserProcesses(int port) {
+        Process server = localServers.get(port);
+        if (server == null || !server.isAlive()) {
+            return 0;
+        }
+        return server.descendants()
+                .filter(p -> p.parent().flatMap(parent -> parent.info().command())
+                        .map(command -> Paths.get(command).getFileName().toString().equals("node"))
+                        .orElse(false))
+                .count();
+    }
+
+    /**
+     * Stops the locally spawned browser servers, if any.
+     */
+    public static synchronized void stopLocal() {
+        localServers.forEach((port, server) -> {
+            if (server.isAlive()) {
+                // The CLI process does not forward the signal to its driver, which owns the browser
+                server.descendants().forEach(ProcessHandle::destroy);
+                server.destroy();
+                logger.info("Local browser server on port {} stopped", port);
+            }
+        });
+        localServers.clear();
+    }
+
+    /**
+     * Makes the current thread connect to the given server instead of browser_server (null to clear).
+     */
+    public static void assignEndpoint(String endpoint) {
+        if (endpoint == null) {
+            assignedEndpoint.remove();
+        } else {
+            assignedEndpoint.set(endpoint);
+        }
+    }
+
+    public static String getAssignedEndpoint() {
+        return assignedEndpoint.get();
+    }
+
+    /**
+     * Connects to a browser server, retrying while the server is unreachable.
+     * A launch-server uses the browser it was started with; launch options (headless, args,
+     * channel) are still sent in the x-playwright-launch-options header for servers that
+     * launch a browser per client.
+     */
+    public static Browser connect(BrowserType browserType, String endpoint,
+                                  BrowserType.LaunchOptions launchOptions, int retries) {
+        BrowserType.ConnectOptions connectOptions = new BrowserType.ConnectOptions()
+                .setHeaders(Map.of("x-playwright-launch-options", launchOptionsHeader(launchOptions)));
+        if (launchOptions.slowMo != null) {
+            connectOptions.setSlowMo(launchOptions.slowMo);
+        }
+
+        PlaywrightException lastException = null;
+        for (int attempt = 1; attempt <= Math.max(1, retries); attempt++) {
+            try {
+                logger.info("Connecting to browser server {} (attempt {}/{})", endpoint, attempt, retries);
+                Browser browser = browserType.connect(endpoint, connectOptions);
+                browser.onDisconnected(b -> logger.warn("Disconnected from browser server {}", endpoint));
+                int port = URI.create(endpoint).getPort();
+                if (localServers.containsKey(port)) {
+                    logger.info("Connected to local browser server {}: {} browser process(es) shared by all clients",
+                            endpoint, browserProcesses(port));
+                }
+                return browser;
+            } catch (PlaywrightException e) {
+                lastException = e;
+                logger.warn("Connection attempt {} to {} failed: {}", attempt, endpoint, e.getMessage());
+                if (attempt < retries) {
+                    sleep((long) RECONNECT_DELAY * attempt);
+                }
+            }
+        }
+        throw new RuntimeException("Could not connect to browser server " + endpoint
+                + " after " + retries + " attempts", lastException);
+    }
+
+    /**
+     * Blocks until this client may open another context on the server.
+     * Limits the number of contexts one JVM holds on the shared server.
+     */
+    public static void acquireContextSlot(int maxContexts) {
+        Semaphore slots = getContextSlots(maxContexts);
+        try {
+            if (!slots.tryAcquire(CONTEXT_SLOT_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException(String.format(
+                        "No browser server context slot free within %dms (limit: %d per client)",
+                        CONTEXT_SLOT_TIMEOUT, maxContexts));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a browser server context slot", e);
+        }
+    }
+
+    /**
+     * Returns a slot taken by {@link #acquireContextSlot(int)}.
+     */
+    public static void releaseContextSlot() {
+        if (contextSlots != null) {
+            contextSlots.release();
+        }
+    }
+
+    private static synchronized Semaphore getContextSlots(int maxContexts) {
+        if (contextSlots == null) {
+            contextSlots = new Semaphore(Math.max(1, maxContexts));
+        }
+        return contextSlots;
+    }
+
+    private static String launchOptionsHeader(BrowserType.LaunchOptions options) {
+        JSONObject json = new JSONObject();
+        if (options.headless != null) {
+            json.put("headless", options.headless);
+        }
+        if (options.args != null) {
+            json.put("args", options.args);
+        }
+        if (options.channel != null) {
+            json.put("channel", options.channel);
+        }
+        return json.toString();
+    }
+
+    private static void waitForPort(int port) {
+        long deadline = System.currentTimeMillis() + SERVER_START_TIMEOUT;
+        while (System.currentTimeMillis() < deadline) {
+            Process server = localServers.get(port);
+            if (server == null || !server.isAlive()) {
+                throw new IllegalStateException("Browser server exited during startup, see target/browser-server-"
+                        + port + ".log");
+            }
+            try (Socket socket = new Socket()) {
+                socket.connect(new InetSocketAddress("localhost", port), 500);
+                return;
+            } catch (IOException e) {
+                sleep(200);
+            }
+        }
+        throw new IllegalStateException("Browser server did not start within " + SERVER_START_TIMEOUT + "ms");
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
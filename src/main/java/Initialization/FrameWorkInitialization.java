@@ -5,19 +5,32 @@ import com.microsoft.playwright.*;
 import com.microsoft.playwright.options.LoadState;
 import com.microsoft.playwright.options.ViewportSize;
 import config.Settings;
+import config.StartupTelemetry;
 import config.frameWorkConfig;
+import execution.RerunManifest;
 import org.slf4j.LoggerFactory;
+import utilze.NetworkTracker;
+import utilze.NetworkUsage;
+import utilze.VideoArtifacts;
+import utilze.VisualBaselines;
 
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class FrameWorkInitialization {
 
     private final frameWorkConfig config;
-    private final Properties prop = new Properties();
-    private final Properties envProperties = new Properties();
+    // Shared by all instances (page objects never load them), loaded by loadProperties()
+    private static final Properties prop = new Properties();
+    private static final Properties envProperties = new Properties();
     private static final Logger logger = (Logger) LoggerFactory.getLogger(FrameWorkInitialization.class);
 
     // Default values
@@ -27,6 +40,32 @@ public class FrameWorkInitialization {
     private static final String DEFAULT_WINDOW_SIZE = "1280,800";
     private static final int DEFAULT_TIMEOUT = 30000; // 30 seconds
     private static final int DEFAULT_NAVIGATION_TIMEOUT = 30000; // 30 seconds
+    private static final int DEFAULT_SERVER_PORT = 3000;
+    private static final int DEFAULT_SERVER_MAX_CONTEXTS = 4;
+    private static final int DEFAULT_SERVER_CONNECT_RETRIES = 3;
+
+    // Whether this instance holds a browser server context slot
+    private boolean contextSlotHeld;
+
+    // Per-scenario artifact name (e.g. video directory), set by the hooks
+    private String artifactName = "scenario_" + System.nanoTime();
+    private Path videoDir;
+
+    // Tags of the scenario being set up (e.g. @landing:/cart.html), set by the hooks
+    private Collection<String> scenarioTags = List.of();
+
+    // Feature tag that opts into context reuse
+    private static final String REUSE_CONTEXT_TAG = "@reuseContext";
+
+    // Feature tag that overrides the landing URL: @landing:none, @landing:/path or @landing:https://...
+    private static final String LANDING_TAG = "@landing:";
+
+    // Visual baselines per environment and browser, e.g. "demoblaze/chromium"
+    private static final Map<String, VisualBaselines> visualBaselines = new ConcurrentHashMap<>();
+
+    // Initial navigations: scenarios set up, and navigations that never had to happen
+    private static final AtomicInteger initialNavigations = new AtomicInteger();
+    private static final AtomicInteger navigationsAvoided = new AtomicInteger();
 
     public FrameWorkInitialization() {
         this.config = frameWorkConfig.getInstance();
@@ -43,6 +82,10 @@ public class FrameWorkInitialization {
             // Load environment-specific properties
             String env = System.getProperty("env").toLowerCase();
             String envFile = "src/main/resources/" + env + ".properties";
+            if (!Files.exists(Paths.get(envFile))) {
+                // Test-only environments (fixture) live with the test resources
+                envFile = "src/test/resources/" + env + ".properties";
+            }
             loadPropertyFile(envFile, envProperties);
 
             logger.info("Loaded properties for environment: {}", env);
@@ -92,14 +135,53 @@ public class FrameWorkInitialization {
             // Configure launch options
             BrowserType.LaunchOptions launchOptions = createLaunchOptions(isHeadless, windowSize);
 
-            // Get browser type and launch
-            BrowserType browserType = getBrowserType(browserName, launchOptions);
-            Browser browser = browserType.launch(launchOptions);
-            config.setBrowser(browser);
+            // Reuse the warm browser from the previous scenario, or launch (or connect to) a new one
+            String serverEndpoint = getBrowserServerEndpoint();
+            Browser browser = config.getBrowser();
+            boolean keepWarmBrowser = isBrowserReuseEnabled() || isContextReuseEnabled();
+            if (keepWarmBrowser && browser != null && browser.isConnected()) {
+                logger.info("Reusing warm browser instance");
+            } else {
+                if (browser != null && browser.isConnected()) {
+                    // Kept alive for a reused context, but this scenario wants a fresh browser
+                    browser.close();
+                    config.setContext(null);
+                }
+                BrowserType browserType = getBrowserType(browserName, launchOptions);
+
+                long launchStart = System.nanoTime();
+                if (serverEndpoint != null) {
+                    // Connect branch: open contexts in the shared browser server's browser
+                    // (also reconnects here after the server was lost)
+                    int retries = Integer.parseInt(setting("server_connect_retries",
+                            String.valueOf(DEFAULT_SERVER_CONNECT_RETRIES)));
+                    String endpoint = BrowserServer.resolve(serverEndpoint, browserType, launchOptions,
+                            Integer.parseInt(setting("browser_server_port", String.valueOf(DEFAULT_SERVER_PORT))));
+                    browser = BrowserServer.connect(browserType, endpoint, launchOptions, retries);
+                } else {
+                    browser = browserType.launch(launchOptions);
+                }
+                StartupTelemetry.record(StartupTelemetry.Phase.BROWSER_LAUNCH, launchStart);
+                config.setBrowser(browser);
+            }
 
-            // Create browser context
-            BrowserContext context = createBrowserContext(browser, locale, windowSize);
+            // Respect the per-client context limit on a shared browser server
+            if (serverEndpoint != null && !contextSlotHeld) {
+                BrowserServer.acquireContextSlot(Integer.parseInt(setting("server_max_contexts",
+                        String.valueOf(DEFAULT_SERVER_MAX_CONTEXTS))));
+                contextSlotHeld = true;
+            }
+
+            // Reset and reuse the previous scenario's context (@reuseContext), or create a new one
+            long connectStart = System.nanoTime();
+            BrowserContext context = reusableContext(browser);
+            if (context == null) {
+                long createStart = System.nanoTime();
+                context = createBrowserContext(browser, locale, windowSize);
+                ContextReset.recordCreation(createStart);
+            }
             config.setContext(context);
+            NetworkUsage.attach(context, prop);
 
             // Start Playwright Tracing if enabled
             String enableTracing = prop.getProperty("enable_tracing", "false");
@@ -114,6 +196,14 @@ public class FrameWorkInitialization {
             // Create page
             Page page = context.newPage();
             config.setPage(page);
+            NetworkTracker.attach(page, prop);
+            StartupTelemetry.record(StartupTelemetry.Phase.FIRST_CONNECTION, connectStart);
+
+            // Network and CPU throttling (@throttle:profile or throttle_profile), Chromium only
+            Throttling.Profile throttling = Throttling.resolve(prop, scenarioTags, setting("throttle_profile", null));
+            if (throttling != null && Throttling.apply(context, page, throttling)) {
+                config.setThrottling(throttling.describe());
+            }
 
             // Set default timeouts
             page.setDefaultTimeout(defaultTimeout);
@@ -210,11 +300,12 @@ public class FrameWorkInitialization {
         // Accept downloads
         contextOptions.setAcceptDownloads(true);
 
-        // Set video recording if specified
-        String recordVideo = prop.getProperty("record_video");
-        if ("true".equalsIgnoreCase(recordVideo)) {
-            contextOptions.setRecordVideoDir(java.nio.file.Paths.get("videos/"));
-            logger.info("Video recording enabled. Videos will be saved to: videos/");
+        // Set video recording if specified (one directory per scenario)
+        VideoArtifacts.Mode videoMode = VideoArtifacts.getMode(prop);
+        if (videoMode != VideoArtifacts.Mode.OFF) {
+            videoDir = VideoArtifacts.scenarioDir(artifactName);
+            contextOptions.setRecordVideoDir(videoDir);
+            logger.info("Video recording enabled ({}). Videos will be saved to: {}", videoMode, videoDir);
         }
 
         logger.debug("Browser context options: Locale={}, Viewport={}", locale, windowSize);
@@ -222,6 +313,53 @@ public class FrameWorkInitialization {
         return browser.newContext(contextOptions);
     }
 
+    /**
+     * Returns the context kept by the previous scenario after resetting it, or null when
+     * a new context is needed. A kept context that is not reused is closed here.
+     */
+    private BrowserContext reusableContext(Browser browser) {
+        BrowserContext previous = config.getContext();
+        if (previous == null) {
+            return null;
+        }
+        if (isContextReuseEnabled() && previous.browser() == browser
+                && ContextReset.reset(previous, contextPermissions())) {
+            logger.info("Reusing reset browser context");
+            return previous;
+        }
+        try {
+            previous.close();
+        } catch (Exception e) {
+            logger.warn("Error closing previous context: {}", e.getMessage());
+        }
+        config.setContext(null);
+        return null;
+    }
+
+    /**
+     * Permissions granted when the context is created, granted again after a reset.
+     */
+    private List<String> contextPermissions() {
+        return prop.getProperty("geolocation_latitude") != null && prop.getProperty("geolocation_longitude") != null
+                ? List.of("geolocation")
+                : List.of();
+    }
+
+    /**
+     * Whether this scenario's context is reset and reused instead of recreated.
+     * Opt in per feature or scenario with @reuseContext, or for all with reuse_context=true.
+     * Not available with video recording, since videos are recorded per context.
+     */
+    public boolean isContextReuseEnabled() {
+        boolean requested = scenarioTags.contains(REUSE_CONTEXT_TAG)
+                || Boolean.parseBoolean(setting("reuse_context", "false"));
+        if (requested && VideoArtifacts.getMode(prop) != VideoArtifacts.Mode.OFF) {
+            logger.debug("Context reuse disabled while recording videos");
+            return false;
+        }
+        return requested;
+    }
+
     /**
      * Get browser type based on browser name
      */
@@ -248,6 +386,46 @@ public class FrameWorkInitialization {
         };
     }
 
+    /**
+     * Whether the browser is kept alive between scenarios (only the context is recreated).
+     * Priority: Command line (-Dreuse_browser=true) > BrowserConfig.properties > rerun mode
+     */
+    public boolean isBrowserReuseEnabled() {
+        String reuseBrowser = setting("reuse_browser", null);
+        if (reuseBrowser != null) {
+            return Boolean.parseBoolean(reuseBrowser);
+        }
+        // Keep the server connection between scenarios; closing it would close the remote browser
+        return RerunManifest.isRerunMode() || setting("browser_server", null) != null
+                || BrowserServer.getAssignedEndpoint() != null;
+    }
+
+    /**
+     * Returns the browser server endpoint to connect to, or null to launch browsers locally.
+     * browser_server=ws://host:port/ connects to a running server;
+     * browser_server=local spawns one on browser_server_port (default 3000), started on connect
+     * (see {@link BrowserServer#resolve}) with this scenario's browser and launch options.
+     * A server assigned to the thread (load-test virtual users) takes precedence.
+     */
+    private String getBrowserServerEndpoint() {
+        String assigned = BrowserServer.getAssignedEndpoint();
+        if (assigned != null) {
+            return assigned;
+        }
+        String server = setting("browser_server", null);
+        if (server == null || server.isBlank()) {
+            return null;
+        }
+        return server.trim();
+    }
+
+    /**
+     * Reads a setting. Priority: Command line (-Dkey=value) > BrowserConfig.properties > Default
+     */
+    protected String setting(String key, String defaultValue) {
+        return System.getProperty(key, prop.getProperty(key, defaultValue));
+    }
+
     /**
      * Parse viewport size from string and return ViewportSize object
      */
@@ -290,15 +468,19 @@ public class FrameWorkInitialization {
             loadProperties();
             initializeBrowser();
 
-            String url = Settings.Url;
-            if (url == null || url.isEmpty()) {
-                throw new IllegalStateException("URL not found in environment properties");
+            String url = getLandingUrl();
+            initialNavigations.incrementAndGet();
+            if (url == null) {
+                logger.info("Initial navigation disabled by {}none", LANDING_TAG);
+                navigationsAvoided.incrementAndGet();
+            } else if (Boolean.parseBoolean(setting("lazy_navigation", "true"))) {
+                // Loaded on first page use; skipped if the first step navigates itself
+                config.setPendingNavigation(url);
+                logger.info("Initial navigation to {} deferred until first page use", url);
+            } else {
+                navigateToLanding(url);
             }
 
-            logger.info("Navigating to: {}", url);
-            config.getPage().navigate(url);
-            config.getPage().waitForLoadState(LoadState.DOMCONTENTLOADED);
-
             logger.info("Framework setup completed successfully");
 
         } catch (Exception e) {
@@ -316,7 +498,16 @@ public class FrameWorkInitialization {
     public void tearDown() {
         try {
             logger.info("Starting scenario cleanup...");
-            config.cleanupScenario(); // ✅ Use cleanupScenario() - keeps Playwright alive
+            String unused = config.takePendingNavigation();
+            if (unused != null) {
+                navigationsAvoided.incrementAndGet();
+                logger.info("Initial navigation to {} was never needed", unused);
+            }
+            config.cleanupScenario(isBrowserReuseEnabled(), isContextReuseEnabled()); // ✅ Use cleanupScenario() - keeps Playwright alive
+            if (contextSlotHeld) {
+                BrowserServer.releaseContextSlot();
+                contextSlotHeld = false;
+            }
             logger.info("Scenario cleanup completed successfully");
         } catch (Exception e) {
             logger.error("Error during scenario cleanup", e);
@@ -337,9 +528,88 @@ public class FrameWorkInitialization {
         }
     }
 
+    /**
+     * Complete shutdown of every thread's browser and Playwright instance (see frameWorkConfig),
+     * without creating an instance on the calling thread. Call only after all scenarios finished.
+     */
+    public static void shutdownAllThreads() {
+        try {
+            logger.info("Starting complete framework shutdown...");
+            frameWorkConfig.cleanupAllThreads();
+            logger.info("Framework shutdown completed successfully");
+        } catch (Exception e) {
+            logger.error("Error during complete shutdown", e);
+        }
+    }
+
+    // ==================== LANDING NAVIGATION ====================
+
+    /**
+     * Landing URL of the scenario: Settings.Url, or the @landing tag of the feature/scenario.
+     * @return The URL to load, or null for @landing:none
+     */
+    private String getLandingUrl() {
+        String landing = scenarioTags.stream()
+                .filter(tag -> tag.startsWith(LANDING_TAG))
+                .map(tag -> tag.substring(LANDING_TAG.length()))
+                .reduce((first, last) -> last) // scenario tags come after feature tags
+                .orElse(null);
+        if ("none".equalsIgnoreCase(landing)) {
+            return null;
+        }
+        if (landing != null && landing.matches("(?i)https?://.*")) {
+            return landing;
+        }
+
+        String url = Settings.Url;
+        if (url == null || url.isEmpty()) {
+            throw new IllegalStateException("URL not found in environment properties");
+        }
+        return landing == null ? url : URI.create(url).resolve(landing).toString();
+    }
+
+    protected void navigateToLanding(String url) {
+        logger.info("Navigating to: {}", url);
+        config.getPage().navigate(url);
+        config.getPage().waitForLoadState(LoadState.DOMCONTENTLOADED);
+    }
+
+    /**
+     * Drops the pending landing navigation, e.g. because the step navigates somewhere itself.
+     */
+    protected void cancelPendingNavigation() {
+        String url = config.takePendingNavigation();
+        if (url != null) {
+            navigationsAvoided.incrementAndGet();
+            logger.info("Initial navigation to {} skipped, step navigates itself", url);
+        }
+    }
+
+    /**
+     * Returns e.g. "3 of 10 initial navigations avoided".
+     */
+    public static String navigationSummary() {
+        return navigationsAvoided.get() + " of " + initialNavigations.get() + " initial navigations avoided";
+    }
+
     // ==================== GETTERS ====================
 
+    /**
+     * Returns the page, loading the landing URL first if its navigation is still pending.
+     */
     public Page getPage() {
+        String pending = config.takePendingNavigation();
+        if (pending != null) {
+            navigateToLanding(pending);
+        }
+        return config.getPage();
+    }
+
+    /**
+     * Returns the page as it is, without triggering the pending landing navigation
+     * (e.g. for failure screenshots).
+     */
+    public Page getCurrentPage() {
         return config.getPage();
     }
 
@@ -351,6 +621,45 @@ public class FrameWorkInitialization {
         return config.getContext();
     }
 
+    /**
+     * Returns the screenshot baselines of the current environment and browser.
+     */
+    public VisualBaselines getVisualBaselines() {
+        Browser browser = config.getBrowser();
+        String subDir = System.getProperty("env", "default").toLowerCase() + "/"
+                + (browser == null ? "unknown" : browser.browserType().name());
+        return visualBaselines.computeIfAbsent(subDir, dir -> new VisualBaselines(prop, dir));
+    }
+
+    /**
+     * Returns the throttling profile applied to the scenario's page, or null when unthrottled.
+     */
+    public String getThrottling() {
+        return config.getThrottling();
+    }
+
+    /**
+     * Sets the tags of the scenario being set up. Call before setUp().
+     */
+    public void setScenarioTags(Collection<String> scenarioTags) {
+        this.scenarioTags = scenarioTags;
+    }
+
+    /**
+     * Sets the name used for this scenario's artifact directories. Call before setUp().
+     */
+    public void setArtifactName(String artifactName) {
+        this.artifactName = artifactName;
+    }
+
+    /**
+     * Directory this scenario's video is recorded into, or null when recording is off.
+     * Videos are complete only after tearDown() closed the context.
+     */
+    public Path getVideoDir() {
+        return videoDir;
+    }
+
     public Properties getProperties() {
         return prop;
     }
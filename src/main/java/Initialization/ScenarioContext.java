@@ -0,0 +1,124 @@
+package Initialization;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.*;
+
+/**
+ * Scenario-scoped object container for page objects, step classes and utilities.
+ * Objects are created on first request and shared for the rest of the scenario, then
+ * discarded when the scenario ends. Constructor parameters are resolved from the
+ * container, so a page object asks for its helpers instead of creating them:
+ *
+ *   public Login(Form form, LoginPath loginPath) { ... }
+ *
+ * Each thread has its own scope, so scenarios running in parallel never share instances.
+ * Cucumber starts and ends the scope through runner.ScenarioObjectFactory.
+ */
+public class ScenarioContext {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScenarioContext.class);
+
+    private static final ThreadLocal<ScenarioContext> current = new ThreadLocal<>();
+
+    private final Map<Class<?>, Object> instances = new HashMap<>();
+    private final Deque<Class<?>> creating = new ArrayDeque<>();
+
+    private ScenarioContext() {
+    }
+
+    /**
+     * Starts a new scope on the current thread, discarding any previous one.
+     */
+    public static void start() {
+        current.set(new ScenarioContext());
+    }
+
+    /**
+     * Ends the current thread's scope; its objects are no longer handed out.
+     */
+    public static void dispose() {
+        ScenarioContext context = current.get();
+        if (context != null) {
+            logger.debug("Scenario scope disposed ({} objects)", context.instances.size());
+        }
+        current.remove();
+    }
+
+    public static boolean isActive() {
+        return current.get() != null;
+    }
+
+    /**
+     * Returns the scenario's instance of the type, creating it on first use.
+     */
+    public static <T> T get(Class<T> type) {
+        ScenarioContext context = current.get();
+        if (context == null) {
+            throw new IllegalStateException("No scenario scope active, cannot provide " + type.getName());
+        }
+        return context.getOrCreate(type);
+    }
+
+    /**
+     * Registers an existing instance for the rest of the scenario.
+     */
+    public static <T> void register(Class<T> type, T instance) {
+        ScenarioContext context = current.get();
+        if (context == null) {
+            throw new IllegalStateException("No scenario scope active, cannot register " + type.getName());
+        }
+        context.instances.put(type, instance);
+    }
+
+    private <T> T getOrCreate(Class<T> type) {
+        Object instance = instances.get(type);
+        if (instance == null) {
+            instance = create(type);
+            instances.put(type, instance);
+        }
+        return type.cast(instance);
+    }
+
+    private <T> T create(Class<T> type) {
+        if (creating.contains(type)) {
+            throw new IllegalStateException("Circular dependency: " + creating + " -> " + type.getSimpleName());
+        }
+        creating.push(type);
+        try {
+            Constructor<?> constructor = injectableConstructor(type);
+            Object[] args = Arrays.stream(constructor.getParameterTypes())
+                    .map(this::getOrCreate)
+                    .toArray();
+            logger.debug("Creating {} for scenario", type.getSimpleName());
+            return type.cast(constructor.newInstance(args));
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Failed to create " + type.getName() + ": "
+                    + e.getTargetException().getMessage(), e.getTargetException());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create " + type.getName() + ": " + e.getMessage(), e);
+        } finally {
+            creating.pop();
+        }
+    }
+
+    /**
+     * The single public constructor, or the public no-arg constructor when there are several.
+     */
+    private static Constructor<?> injectableConstructor(Class<?> type) {
+        Constructor<?>[] constructors = type.getConstructors();
+        if (constructors.length == 1) {
+            return constructors[0];
+        }
+        for (Constructor<?> constructor : constructors) {
+            if (constructor.getParameterCount() == 0) {
+                return constructor;
+            }
+        }
+        throw new IllegalStateException(type.getName() + " needs one public constructor (found "
+                + constructors.length + ")");
+    }
+}
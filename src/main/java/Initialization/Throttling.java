@@ -0,0 +1,133 @@
+package Initialization;
+
+import com.google.gson.JsonObject;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.CDPSession;
+import com.microsoft.playwright.Page;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Named network and CPU throttling profiles, applied to a page through a CDP session.
+ * Profiles are defined in BrowserConfig.properties:
+ *   throttle.slow3g = latency:2000,download_kbps:400,upload_kbps:400,cpu:4
+ * and selected per feature or scenario with @throttle:slow3g, or for all with throttle_profile.
+ * CDP is Chromium only; on Firefox and WebKit the profile is skipped with a warning.
+ */
+public class Throttling {
+
+    private static final Logger logger = LoggerFactory.getLogger(Throttling.class);
+
+    public static final String TAG = "@throttle:";
+    private static final String PROFILE_PREFIX = "throttle.";
+
+    private static final AtomicBoolean unsupportedWarned = new AtomicBoolean();
+
+    private Throttling() {
+    }
+
+    /**
+     * A throttling profile. Negative throughput means unlimited, cpuSlowdown 1 means no slowdown.
+     */
+    public record Profile(String name, double latencyMs, double downloadKbps, double uploadKbps, double cpuSlowdown) {
+
+        /**
+         * Returns e.g. "slow3g (2000ms latency, 400/400 kbps, 4x CPU)"
+         */
+        public String describe() {
+            return String.format("%s (%dms latency, %s/%s kbps, %sx CPU)", name, Math.round(latencyMs),
+                    kbps(downloadKbps), kbps(uploadKbps), cpuSlowdown == Math.rint(cpuSlowdown)
+                            ? String.valueOf((long) cpuSlowdown) : String.valueOf(cpuSlowdown));
+        }
+
+        private static String kbps(double value) {
+            return value < 0 ? "unlimited" : String.valueOf(Math.round(value));
+        }
+    }
+
+    /**
+     * Returns the profile selected for the scenario, or null for none.
+     * The last @throttle: tag wins (scenario tags come after feature tags), then the configured profile.
+     * @param configured throttle_profile setting (may be null)
+     */
+    public static Profile resolve(Properties prop, Collection<String> tags, String configured) {
+        String name = configured;
+        for (String tag : tags) {
+            if (tag.startsWith(TAG)) {
+                name = tag.substring(TAG.length());
+            }
+        }
+        if (name == null || name.isBlank() || "none".equalsIgnoreCase(name.trim())) {
+            return null;
+        }
+        name = name.trim();
+        String definition = prop.getProperty(PROFILE_PREFIX + name);
+        if (definition == null) {
+            throw new IllegalArgumentException("Unknown throttling profile '" + name
+                    + "' (define " + PROFILE_PREFIX + name + " in BrowserConfig.properties)");
+        }
+        return parse(name, definition);
+    }
+
+    private static Profile parse(String name, String definition) {
+        Map<String, Double> values = new HashMap<>();
+        for (String part : definition.split(",")) {
+            String[] keyValue = part.split(":", 2);
+            if (keyValue.length != 2) {
+                throw new IllegalArgumentException("Invalid throttling profile " + name + ": '" + part.trim()
+                        + "' (expected key:value)");
+            }
+            values.put(keyValue[0].trim(), Double.parseDouble(keyValue[1].trim()));
+        }
+        return new Profile(name,
+                values.getOrDefault("latency", 0.0),
+                values.getOrDefault("download_kbps", -1.0),
+                values.getOrDefault("upload_kbps", -1.0),
+                values.getOrDefault("cpu", 1.0));
+    }
+
+    /**
+     * Applies the profile to the page and its popups.
+     * @return false when the browser does not support CDP (profile not applied)
+     */
+    public static boolean apply(BrowserContext context, Page page, Profile profile) {
+        String browserName = context.browser() == null ? "unknown" : context.browser().browserType().name();
+        if (!"chromium".equals(browserName)) {
+            if (unsupportedWarned.compareAndSet(false, true)) {
+                logger.warn("Throttling profile {} ignored: CDP throttling is only available on Chromium, not {}",
+                        profile.name(), browserName);
+            }
+            return false;
+        }
+        throttle(context, page, profile);
+        page.onPopup(popup -> throttle(context, popup, profile));
+        logger.info("Throttling applied: {}", profile.describe());
+        return true;
+    }
+
+    private static void throttle(BrowserContext context, Page page, Profile profile) {
+        // The session stays attached for the page's lifetime; detaching would drop the emulation
+        CDPSession session = context.newCDPSession(page);
+
+        JsonObject network = new JsonObject();
+        network.addProperty("offline", false);
+        network.addProperty("latency", profile.latencyMs());
+        network.addProperty("downloadThroughput", bytesPerSecond(profile.downloadKbps()));
+        network.addProperty("uploadThroughput", bytesPerSecond(profile.uploadKbps()));
+        session.send("Network.enable");
+        session.send("Network.emulateNetworkConditions", network);
+
+        if (profile.cpuSlowdown() > 1) {
+            JsonObject cpu = new JsonObject();
+            cpu.addProperty("rate", profile.cpuSlowdown());
+            session.send("Emulation.setCPUThrottlingRate", cpu);
+        }
+    }
+
+    private static double bytesPerSecond(double kbps) {
+        return kbps < 0 ? -1 : kbps * 1000 / 8;
+    }
+}
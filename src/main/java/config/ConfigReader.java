@@ -39,6 +39,7 @@ public class ConfigReader {
             Settings.Password = envConfig.password();
             Settings.chatGptUrl = envConfig.chatGptUrl();
             Settings.geminiAppUrl = envConfig.geminiAppUrl();
+            Settings.Budget = PerformanceBudget.from(envConfig);
 
             logger.info("✅ Configuration loaded successfully");
             logger.info("Environment: {}, URL: {}", Settings.EnvName, Settings.Url);
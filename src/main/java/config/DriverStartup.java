@@ -0,0 +1,143 @@
+package config;
+
+import com.microsoft.playwright.Playwright;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utilze.ResourceMonitor;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Creates the Playwright instance with warm-start options.
+ * - driver_dir:    pre-extracted Playwright driver, reused across runs instead of
+ *                  unpacking the driver from the jar on every JVM start
+ * - browsers_path: pre-installed browsers (PLAYWRIGHT_BROWSERS_PATH)
+ * - offline_mode:  skip the browser download check at driver start
+ * - resource_monitor: remember the driver's process id per thread (see utilze.ResourceMonitor, also
+ *                  on with -Dworkers=auto); driver starts are then serialized so each new child
+ *                  process is attributed correctly
+ * Priority: Command line (-Ddriver_dir=...) > BrowserConfig.properties
+ */
+public class DriverStartup {
+
+    private static final Logger logger = LoggerFactory.getLogger(DriverStartup.class);
+
+    private static final String BROWSER_CONFIG = "src/main/java/config/BrowserConfig.properties";
+
+    // Playwright's own switch for a pre-installed driver
+    private static final String CLI_DIR_PROPERTY = "playwright.cli.dir";
+
+    // Driver process started by each thread (by thread name), for per-worker resource accounting
+    private static final Map<String, Long> driverPids = new ConcurrentHashMap<>();
+
+    private DriverStartup() {
+    }
+
+    /**
+     * Starts the Playwright driver and records how long it took.
+     */
+    public static Playwright create() {
+        Playwright.CreateOptions options = new Playwright.CreateOptions();
+        Map<String, String> env = driverEnvironment();
+        if (!env.isEmpty()) {
+            options.setEnv(env);
+        }
+
+        if (!ResourceMonitor.isRequested(loadBrowserConfig())) {
+            return start(options);
+        }
+        synchronized (DriverStartup.class) {
+            Set<Long> before = childPids();
+            Playwright playwright = start(options);
+            Set<Long> started = childPids();
+            started.removeAll(before);
+            String thread = Thread.currentThread().getName();
+            if (started.size() == 1) {
+                driverPids.put(thread, started.iterator().next());
+            } else {
+                logger.debug("Driver process not identified ({} new child processes)", started.size());
+                driverPids.remove(thread);
+            }
+            return playwright;
+        }
+    }
+
+    private static Playwright start(Playwright.CreateOptions options) {
+        long start = System.nanoTime();
+        Playwright playwright = Playwright.create(options);
+        StartupTelemetry.record(StartupTelemetry.Phase.DRIVER_START, start);
+        return playwright;
+    }
+
+    /**
+     * Process id of the driver the named thread started last (resource_monitor only).
+     */
+    public static OptionalLong getDriverPid(String threadName) {
+        Long pid = driverPids.get(threadName);
+        return pid != null ? OptionalLong.of(pid) : OptionalLong.empty();
+    }
+
+    private static Set<Long> childPids() {
+        Set<Long> pids = new HashSet<>();
+        ProcessHandle.current().children().forEach(child -> pids.add(child.pid()));
+        return pids;
+    }
+
+    /**
+     * Applies the warm-start settings and returns the environment for the driver process.
+     * Also used for driver processes started outside this JVM (e.g. a browser server).
+     */
+    public static Map<String, String> driverEnvironment() {
+        Properties prop = loadBrowserConfig();
+        Map<String, String> env = new HashMap<>();
+
+        String driverDir = setting(prop, "driver_dir");
+        if (driverDir != null && System.getProperty(CLI_DIR_PROPERTY) == null) {
+            Path driverPath = Paths.get(driverDir);
+            if (Files.exists(driverPath.resolve("package").resolve("cli.js"))) {
+                System.setProperty(CLI_DIR_PROPERTY, driverPath.toAbsolutePath().toString());
+                logger.info("Warm start: using pre-extracted driver at {}", driverPath);
+            } else {
+                logger.warn("driver_dir {} does not contain a Playwright driver, extracting from jar", driverPath);
+            }
+        }
+
+        String browsersPath = setting(prop, "browsers_path");
+        if (browsersPath != null) {
+            env.put("PLAYWRIGHT_BROWSERS_PATH", browsersPath);
+        }
+
+        if (Boolean.parseBoolean(setting(prop, "offline_mode"))) {
+            env.put("PLAYWRIGHT_SKIP_BROWSER_DOWNLOAD", "1");
+            logger.info("Offline mode: skipping browser download checks");
+        }
+        return env;
+    }
+
+    private static String setting(Properties prop, String key) {
+        String value = System.getProperty(key, prop.getProperty(key));
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private static Properties loadBrowserConfig() {
+        Properties prop = new Properties();
+        try (InputStream in = new FileInputStream(BROWSER_CONFIG)) {
+            prop.load(in);
+        } catch (IOException e) {
+            logger.debug("BrowserConfig.properties not readable, using system properties only: {}", e.getMessage());
+        }
+        return prop;
+    }
+}
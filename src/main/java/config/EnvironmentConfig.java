@@ -6,12 +6,14 @@ import org.aeonbits.owner.Config;
  * Environment configuration interface using OWNER library.
  * Dynamically loads properties based on ${env} system property.
  * Properties must be prefixed with environment name (e.g., alpha.Url, beta.Url)
+ * Test-only environments (fixture) keep their file in src/test/resources.
  */
 @Config.LoadPolicy(Config.LoadType.MERGE)
 @Config.Sources({
         "system:properties",
         "system:env",
-        "file:${user.dir}/src/main/resources/${env}.properties"
+        "file:${user.dir}/src/main/resources/${env}.properties",
+        "file:${user.dir}/src/test/resources/${env}.properties"
 })
 public interface EnvironmentConfig extends Config {
 
@@ -30,4 +32,32 @@ public interface EnvironmentConfig extends Config {
     @Key("${env}.geminiAppUrl")
     String geminiAppUrl();
 
+    // ==================== PERFORMANCE BUDGETS ====================
+    // Optional; a metric without a budget is not checked
+
+    @Key("${env}.budget.mode")
+    @DefaultValue("warn")
+    String budgetMode();
+
+    @Key("${env}.budget.ttfb_ms")
+    Long budgetTtfbMs();
+
+    @Key("${env}.budget.fcp_ms")
+    Long budgetFcpMs();
+
+    @Key("${env}.budget.lcp_ms")
+    Long budgetLcpMs();
+
+    @Key("${env}.budget.dom_content_loaded_ms")
+    Long budgetDomContentLoadedMs();
+
+    @Key("${env}.budget.load_ms")
+    Long budgetLoadMs();
+
+    @Key("${env}.budget.cls")
+    Double budgetCls();
+
+    @Key("${env}.budget.transfer_kb")
+    Long budgetTransferKb();
+
 }
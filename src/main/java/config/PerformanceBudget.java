@@ -0,0 +1,74 @@
+package config;
+
+import java.util.*;
+
+/**
+ * Page performance budgets of an environment, read from ${env}.properties:
+ *   alpha.budget.mode = warn          (warn | fail)
+ *   alpha.budget.lcp_ms = 2500
+ *   alpha.budget.cls = 0.1
+ * Metric names match the keys collected by utilze.PagePerformance.
+ */
+public class PerformanceBudget {
+
+    public static final PerformanceBudget NONE = new PerformanceBudget(false, Map.of());
+
+    private final boolean failOnViolation;
+    private final Map<String, Double> limits;
+
+    private PerformanceBudget(boolean failOnViolation, Map<String, Double> limits) {
+        this.failOnViolation = failOnViolation;
+        this.limits = limits;
+    }
+
+    /**
+     * Reads the budgets configured for the current environment.
+     */
+    public static PerformanceBudget from(EnvironmentConfig config) {
+        Map<String, Double> limits = new LinkedHashMap<>();
+        put(limits, "ttfb_ms", config.budgetTtfbMs());
+        put(limits, "fcp_ms", config.budgetFcpMs());
+        put(limits, "lcp_ms", config.budgetLcpMs());
+        put(limits, "dom_content_loaded_ms", config.budgetDomContentLoadedMs());
+        put(limits, "load_ms", config.budgetLoadMs());
+        put(limits, "cls", config.budgetCls());
+        put(limits, "transfer_kb", config.budgetTransferKb());
+        return new PerformanceBudget("fail".equalsIgnoreCase(config.budgetMode().trim()), limits);
+    }
+
+    private static void put(Map<String, Double> limits, String metric, Number limit) {
+        if (limit != null) {
+            limits.put(metric, limit.doubleValue());
+        }
+    }
+
+    /**
+     * Returns one message per metric above its budget, e.g. "lcp_ms 3120 > 2500".
+     * Metrics the browser did not report are not checked.
+     */
+    public List<String> check(Map<String, Double> metrics) {
+        List<String> violations = new ArrayList<>();
+        limits.forEach((metric, limit) -> {
+            Double value = metrics.get(metric);
+            if (value != null && value > limit) {
+                violations.add(String.format("%s %s > %s", metric, format(value), format(limit)));
+            }
+        });
+        return violations;
+    }
+
+    public boolean isEmpty() {
+        return limits.isEmpty();
+    }
+
+    /**
+     * True when exceeding a budget fails the step (budget.mode=fail), false to only warn.
+     */
+    public boolean isFailOnViolation() {
+        return failOnViolation;
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) ? String.valueOf((long) value) : String.format("%.3f", value);
+    }
+}
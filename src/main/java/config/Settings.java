@@ -7,4 +7,5 @@ public class Settings {
     public static String EnvName;
     public static String chatGptUrl;
     public static String geminiAppUrl;
+    public static PerformanceBudget Budget = PerformanceBudget.NONE;
 }
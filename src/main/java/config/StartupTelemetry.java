@@ -0,0 +1,142 @@
+package config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.RuntimeMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records how long each startup phase takes (JVM start to first scenario, driver start,
+ * browser launch, first connection) so cold-start time can be tracked in containers.
+ * Browser executable resolution happens inside the driver during launch and is part of it.
+ * The first measurement of each phase is kept separately from the running totals,
+ * because the first one is the cold start.
+ */
+public class StartupTelemetry {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupTelemetry.class);
+
+    private static final String REPORT_FILE = "target/startup-telemetry.properties";
+
+    private static final Map<Phase, Stats> stats = new ConcurrentHashMap<>();
+
+    private StartupTelemetry() {
+    }
+
+    /**
+     * Startup phases, in the order they happen.
+     */
+    public enum Phase {
+        JVM_TO_FIRST_SCENARIO("JVM start to first scenario"),
+        DRIVER_START("Driver start"),
+        BROWSER_LAUNCH("Browser launch"),
+        FIRST_CONNECTION("Context and page ready");
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    /**
+     * Records a phase duration measured with System.nanoTime().
+     */
+    public static void record(Phase phase, long startNanos) {
+        long millis = (System.nanoTime() - startNanos) / 1_000_000;
+        stats.computeIfAbsent(phase, p -> new Stats()).add(millis);
+        logger.debug("{} took {}ms", phase.getLabel(), millis);
+    }
+
+    /**
+     * Records the time from JVM start to the first scenario, once per JVM.
+     * Compare runs with and without the class-data-sharing archive (-Pcds).
+     */
+    public static void recordJvmToFirstScenario() {
+        if (stats.containsKey(Phase.JVM_TO_FIRST_SCENARIO)) {
+            return;
+        }
+        long millis = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+        stats.computeIfAbsent(Phase.JVM_TO_FIRST_SCENARIO, p -> new Stats()).add(millis);
+        logger.info("JVM start to first scenario: {}ms (CDS archive: {})", millis, isCdsArchiveEnabled());
+    }
+
+    /**
+     * True when the JVM was started with an application class-data-sharing archive.
+     */
+    public static boolean isCdsArchiveEnabled() {
+        RuntimeMXBean runtime = ManagementFactory.getRuntimeMXBean();
+        return runtime.getInputArguments().stream().anyMatch(arg -> arg.startsWith("-XX:SharedArchiveFile"));
+    }
+
+    /**
+     * Returns one summary line per recorded phase, e.g.
+     * "Driver start: first 850ms, avg 850ms, max 850ms (1x)"
+     */
+    public static List<String> summary() {
+        List<String> lines = new ArrayList<>();
+        for (Phase phase : Phase.values()) {
+            Stats s = stats.get(phase);
+            if (s != null) {
+                String suffix = phase != Phase.JVM_TO_FIRST_SCENARIO ? ""
+                        : isCdsArchiveEnabled() ? " with CDS archive" : " without CDS archive";
+                lines.add(String.format("%s: first %dms, avg %dms, max %dms (%dx)%s",
+                        phase.getLabel(), s.first, s.total / s.count, s.max, s.count, suffix));
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Writes the measurements to target/startup-telemetry.properties for CI dashboards.
+     */
+    public static void save() {
+        Properties props = new Properties();
+        props.setProperty("cds_archive", String.valueOf(isCdsArchiveEnabled()));
+        stats.forEach((phase, s) -> {
+            String key = phase.name().toLowerCase();
+            props.setProperty(key + ".first_ms", String.valueOf(s.first));
+            props.setProperty(key + ".avg_ms", String.valueOf(s.total / s.count));
+            props.setProperty(key + ".max_ms", String.valueOf(s.max));
+            props.setProperty(key + ".count", String.valueOf(s.count));
+        });
+
+        Path path = Paths.get(REPORT_FILE);
+        try {
+            Files.createDirectories(path.getParent());
+            try (OutputStream out = Files.newOutputStream(path)) {
+                props.store(out, "Playwright startup telemetry");
+            }
+        } catch (IOException e) {
+            logger.warn("Could not write startup telemetry to {}: {}", path, e.getMessage());
+        }
+    }
+
+    private static class Stats {
+        private long first = -1;
+        private long total;
+        private long max;
+        private int count;
+
+        synchronized void add(long millis) {
+            if (first < 0) {
+                first = millis;
+            }
+            total += millis;
+            max = Math.max(max, millis);
+            count++;
+        }
+    }
+}
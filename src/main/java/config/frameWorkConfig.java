@@ -7,39 +7,66 @@ import com.microsoft.playwright.Playwright;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
 public class frameWorkConfig {
     private static final Logger logger = LoggerFactory.getLogger(frameWorkConfig.class);
-    private static volatile frameWorkConfig instance;
+
+    // One instance per thread: Playwright objects may only be used by the thread that created them.
+    // Sequential runs use a single thread and therefore a single instance.
+    private static final ThreadLocal<frameWorkConfig> instances = ThreadLocal.withInitial(frameWorkConfig::new);
+    private static final Queue<frameWorkConfig> allInstances = new ConcurrentLinkedQueue<>();
     private Playwright playwright;
     private Browser browser;
     private BrowserContext context;
     private Page page;
 
+    // Landing URL the page still has to load (lazy initial navigation)
+    private String pendingNavigation;
+
+    // Throttling profile applied to the scenario's page, e.g. "slow3g (2000ms latency, ...)"
+    private String throttling;
+
     // Private constructor
     private frameWorkConfig() {
-        this.playwright = Playwright.create();
-        logger.debug("Playwright instance created");
+        this.playwright = DriverStartup.create();
+        allInstances.add(this);
+        logger.debug("Playwright instance created for thread {}", Thread.currentThread().getName());
     }
 
-    // Thread-safe singleton
+    // Per-thread instance
     public static frameWorkConfig getInstance() {
-        if (instance == null) {
-            synchronized (frameWorkConfig.class) {
-                if (instance == null) {
-                    instance = new frameWorkConfig();
-                }
-            }
+        return instances.get();
+    }
+
+    /**
+     * Closes the instances of all threads (e.g. load-test virtual users) after they finished.
+     */
+    public static void cleanupAllThreads() {
+        for (frameWorkConfig config : allInstances) {
+            config.cleanupAll();
         }
-        return instance;
+    }
+
+    /**
+     * Closes the current thread's instance and its driver; the thread's next use starts a new one.
+     * For worker threads that are no longer needed (adaptive worker count after a back-off).
+     */
+    public static void closeCurrentThread() {
+        frameWorkConfig config = instances.get();
+        config.cleanupAll();
+        allInstances.remove(config);
+        instances.remove();
     }
 
     // ==================== GETTERS AND SETTERS ====================
 
     public Playwright getPlaywright() {
-        // Recreate Playwright if closed
+        // Recreate Playwright if closed - this pays the driver start again, so make it visible
         if (playwright == null) {
-            playwright = Playwright.create();
-            logger.info("Playwright instance recreated");
+            playwright = DriverStartup.create();
+            logger.warn("Playwright instance recreated after cleanupAll() - driver started again");
         }
         return playwright;
     }
@@ -68,6 +95,27 @@ public class frameWorkConfig {
         return page;
     }
 
+    public void setPendingNavigation(String url) {
+        this.pendingNavigation = url;
+    }
+
+    /**
+     * Returns and clears the pending landing URL, or null if there is none.
+     */
+    public String takePendingNavigation() {
+        String url = pendingNavigation;
+        pendingNavigation = null;
+        return url;
+    }
+
+    public void setThrottling(String throttling) {
+        this.throttling = throttling;
+    }
+
+    public String getThrottling() {
+        return throttling;
+    }
+
     // ==================== CLEANUP METHODS ====================
 
     /**
@@ -76,7 +124,24 @@ public class frameWorkConfig {
      * Call this in @After hook (after each scenario)
      */
     public void cleanupScenario() {
+        cleanupScenario(false);
+    }
+
+    /**
+     * METHOD: Cleanup for EACH scenario, optionally keeping the browser warm
+     * Closes Page and Context; the Browser is only closed when keepBrowser is false
+     */
+    public void cleanupScenario(boolean keepBrowser) {
+        cleanupScenario(keepBrowser, false);
+    }
+
+    /**
+     * METHOD: Cleanup for EACH scenario, optionally keeping the context for reuse
+     * A kept context also keeps its browser; it is reset before the next scenario uses it
+     */
+    public void cleanupScenario(boolean keepBrowser, boolean keepContext) {
         logger.debug("Starting scenario cleanup...");
+        keepBrowser = keepBrowser || keepContext;
 
         // Close Page
         try {
@@ -88,9 +153,11 @@ public class frameWorkConfig {
             logger.warn("Error closing page: {}", e.getMessage());
         }
 
-        // Close Context
+        // Close Context (unless it is reused by the next scenario)
         try {
-            if (context != null) {
+            if (keepContext && context != null) {
+                logger.debug("Context kept for reuse");
+            } else if (context != null) {
                 context.close();
                 logger.debug("Context closed");
             }
@@ -98,9 +165,11 @@ public class frameWorkConfig {
             logger.warn("Error closing context: {}", e.getMessage());
         }
 
-        // Close Browser
+        // Close Browser (unless it is reused by the next scenario)
         try {
-            if (browser != null && browser.isConnected()) {
+            if (keepBrowser && browser != null && browser.isConnected()) {
+                logger.debug("Browser kept alive for reuse");
+            } else if (browser != null && browser.isConnected()) {
                 browser.close();
                 logger.debug("Browser closed");
             }
@@ -110,8 +179,14 @@ public class frameWorkConfig {
 
         // Reset references (but keep Playwright)
         page = null;
-        context = null;
-        browser = null;
+        pendingNavigation = null;
+        throttling = null;
+        if (!keepContext) {
+            context = null;
+        }
+        if (!keepBrowser || (browser != null && !browser.isConnected())) {
+            browser = null;
+        }
 
         logger.debug("Scenario cleanup completed");
     }
@@ -0,0 +1,342 @@
+package execution;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utilze.ResourceMonitor;
+import utilze.TimingSeries;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Adaptive worker count for parallel runs (-Dworkers=auto).
+ * Starts from the host's cores and available memory, then after every window of finished
+ * scenarios compares the step slowdown with the best window seen so far and checks the memory
+ * left per worker:
+ * - slowdown above backoff factor x best, or available memory below the reserve: one worker less
+ * - slowdown above hold factor x best, adding a worker would cut into the reserve, or at max: hold
+ * - otherwise: one worker more
+ * Each step is measured against its own baseline, the duration of its first run (same keyword
+ * and text), and a window's slowdown is the p90 of those ratios. Raw step times would follow
+ * the scenario mix: a window of login steps looks fast and a window of checkouts slow, whatever
+ * the contention. A step seen for the first time only sets its baseline.
+ * Every decision is logged and written to target/adaptive-workers.json for tuning.
+ *
+ * The data provider has a thread per possible worker and each thread keeps its own driver, so
+ * free slots go to threads that already have one: while as many threads hold a driver as the
+ * limit allows, a thread without driver only takes a free slot that none of them claimed
+ * within a short grace period (they may have run out of scenarios). When more threads hold a driver than the limit allows (after
+ * a back-off), a thread finishing its scenario closes its driver, so memory follows the limit.
+ *
+ * Settings (system properties):
+ *   workers=auto                 enables the controller (a number keeps a fixed count)
+ *   workers.max                  upper bound (default: cores, and what memory allows)
+ *   workers.memory_per_worker_mb estimate before anything was measured (default 600)
+ *   workers.memory_reserve_mb    memory to keep available for the OS and the JVM (default 1024)
+ *   workers.hold_factor          slowdown over the best window that stops adding workers (default 1.2)
+ *   workers.backoff_factor       slowdown over the best window that removes a worker (default 1.5)
+ */
+public class AdaptiveConcurrency {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveConcurrency.class);
+
+    private static final String REPORT = "target/adaptive-workers.json";
+    private static final int DEFAULT_MEMORY_PER_WORKER = 600; // MB, a driver with one Chromium
+    private static final int DEFAULT_MEMORY_RESERVE = 1024; // MB
+    private static final double DEFAULT_HOLD_FACTOR = 1.2;
+    private static final double DEFAULT_BACKOFF_FACTOR = 1.5;
+    private static final int MIN_WINDOW_STEPS = 5;
+    private static final int LATENCY_PERCENTILE = 90;
+    private static final long WARM_GRACE_MS = 200; // Time a free slot is kept for a thread with a driver
+    private static final double MIN_STEP_MS = 20; // Shorter steps are timer noise, counted as this long
+
+    private static volatile AdaptiveConcurrency current;
+
+    private final int max;
+    private final long memoryPerWorkerMb;
+    private final long memoryReserveMb;
+    private final double holdFactor;
+    private final double backoffFactor;
+
+    private int limit;
+    private int active;
+    private int peak;
+    private int finishedInWindow;
+    private int closedDrivers;
+    private final Set<String> warmThreads = new HashSet<>();
+    private double bestSlowdown = Double.MAX_VALUE;
+    private final Map<String, Double> stepBaselineMs = new HashMap<>();
+    private final List<Double> windowSlowdowns = new ArrayList<>();
+    private final List<Long> scenarioPeakRssMb = new ArrayList<>();
+    private final List<Decision> decisions = new ArrayList<>();
+
+    /**
+     * One adjustment of the worker count and the figures it was based on.
+     */
+    public record Decision(long atMillis, int from, int to, String action, String reason, double slowdownP90,
+                           double bestSlowdownP90, long availableMb, long perWorkerMb) {
+    }
+
+    AdaptiveConcurrency(int cores, long availableMb, int maxOverride, long memoryPerWorkerMb, long memoryReserveMb,
+                        double holdFactor, double backoffFactor) {
+        this.memoryPerWorkerMb = memoryPerWorkerMb;
+        this.memoryReserveMb = memoryReserveMb;
+        this.holdFactor = holdFactor;
+        this.backoffFactor = backoffFactor;
+        long byMemory = availableMb < 0 ? cores : Math.max(1, (availableMb - memoryReserveMb) / memoryPerWorkerMb);
+        this.max = maxOverride > 0 ? maxOverride : (int) Math.max(1, Math.min(cores, byMemory));
+        // Start at half of what the host appears to allow and grow from measurements
+        this.limit = Math.max(1, Math.min(max, cores / 2));
+        record(limit, "start", String.format("%d cores, %s available, max %d (~%d MB per worker estimated until "
+                        + "measured)", cores, availableMb < 0 ? "unknown memory" : availableMb + " MB", max, memoryPerWorkerMb),
+                Double.NaN, availableMb, memoryPerWorkerMb);
+    }
+
+    /**
+     * True when -Dworkers=auto is set.
+     */
+    public static boolean isEnabled() {
+        return "auto".equalsIgnoreCase(System.getProperty("workers", "").trim());
+    }
+
+    /**
+     * The controller of this run, created on first use when enabled; null otherwise.
+     */
+    public static AdaptiveConcurrency getInstance() {
+        if (!isEnabled()) {
+            return null;
+        }
+        if (current == null) {
+            synchronized (AdaptiveConcurrency.class) {
+                if (current == null) {
+                    current = new AdaptiveConcurrency(Runtime.getRuntime().availableProcessors(), availableMemoryMb(),
+                            Integer.getInteger("workers.max", 0),
+                            Long.getLong("workers.memory_per_worker_mb", DEFAULT_MEMORY_PER_WORKER),
+                            Long.getLong("workers.memory_reserve_mb", DEFAULT_MEMORY_RESERVE),
+                            Double.parseDouble(System.getProperty("workers.hold_factor", String.valueOf(DEFAULT_HOLD_FACTOR))),
+                            Double.parseDouble(System.getProperty("workers.backoff_factor", String.valueOf(DEFAULT_BACKOFF_FACTOR))));
+                }
+            }
+        }
+        return current;
+    }
+
+    // ==================== GATE ====================
+
+    /**
+     * Blocks until the scenario may run under the current worker limit, preferring threads that
+     * already started a driver.
+     */
+    public synchronized void acquire() throws InterruptedException {
+        String thread = Thread.currentThread().getName();
+        boolean warm = warmThreads.contains(thread);
+        long deadline = 0;
+        while (true) {
+            if (active >= limit) {
+                deadline = 0;
+                wait();
+            } else if (warm || warmThreads.size() < limit) {
+                break;
+            } else {
+                // The free slot belongs to a thread with a driver, unless none comes for it
+                long now = System.currentTimeMillis();
+                deadline = deadline == 0 ? now + WARM_GRACE_MS : deadline;
+                if (now >= deadline) {
+                    break;
+                }
+                wait(deadline - now);
+            }
+        }
+        warmThreads.add(thread);
+        active++;
+        peak = Math.max(peak, active);
+    }
+
+    /**
+     * Ends a scenario and decides on the worker count once a window of scenarios has finished.
+     * @return true when the calling thread should close its driver: more threads hold one than
+     *         the limit allows
+     */
+    public synchronized boolean release() {
+        active--;
+        finishedInWindow++;
+        // A window is one scenario per worker, with enough steps for a stable percentile
+        if (finishedInWindow >= limit && windowSlowdowns.size() >= MIN_WINDOW_STEPS) {
+            decide();
+        }
+        boolean close = warmThreads.size() > limit && warmThreads.remove(Thread.currentThread().getName());
+        if (close) {
+            closedDrivers++;
+            logger.debug("Closing the driver of {}: {} threads hold one, limit {}", Thread.currentThread().getName(),
+                    warmThreads.size() + 1, limit);
+        }
+        notifyAll();
+        return close;
+    }
+
+    /**
+     * Records the duration of a finished step as a ratio to the step's first duration.
+     * @param step Keyword and text of the step, e.g. "When I add the product to the cart"
+     */
+    public synchronized void recordStep(String step, double ms) {
+        if (step == null) {
+            return;
+        }
+        Double baseline = stepBaselineMs.putIfAbsent(step, ms);
+        if (baseline != null) {
+            windowSlowdowns.add(Math.max(ms, MIN_STEP_MS) / Math.max(baseline, MIN_STEP_MS));
+        }
+    }
+
+    /**
+     * Records the driver and browser memory a scenario used (resource_monitor).
+     */
+    public synchronized void recordUsage(ResourceMonitor.Usage usage) {
+        scenarioPeakRssMb.add(usage.getPeakRssMb());
+    }
+
+    // ==================== DECISIONS ====================
+
+    private void decide() {
+        double p90 = TimingSeries.percentile(windowSlowdowns, LATENCY_PERCENTILE);
+        long availableMb = availableMemoryMb();
+        long perWorkerMb = perWorkerMemoryMb();
+        windowSlowdowns.clear();
+        finishedInWindow = 0;
+
+        bestSlowdown = Math.min(bestSlowdown, p90);
+        double ratio = p90 / bestSlowdown;
+        boolean memoryKnown = availableMb >= 0;
+
+        if (memoryKnown && availableMb < memoryReserveMb && limit > 1) {
+            record(limit - 1, "back off", String.format("%d MB available < %d MB reserve", availableMb, memoryReserveMb),
+                    p90, availableMb, perWorkerMb);
+        } else if (ratio > backoffFactor && limit > 1) {
+            record(limit - 1, "back off", String.format("step slowdown p90 %.1fx the best window", ratio), p90, availableMb, perWorkerMb);
+        } else if (ratio > holdFactor) {
+            record(limit, "hold", String.format("step slowdown p90 %.1fx the best window", ratio), p90, availableMb, perWorkerMb);
+        } else if (limit >= max) {
+            record(limit, "hold", "at maximum of " + max, p90, availableMb, perWorkerMb);
+        } else if (memoryKnown && availableMb - perWorkerMb < memoryReserveMb) {
+            record(limit, "hold", String.format("another worker (~%d MB%s) would cut into the %d MB reserve",
+                    perWorkerMb, scenarioPeakRssMb.isEmpty() ? ", estimated" : "", memoryReserveMb), p90, availableMb,
+                    perWorkerMb);
+        } else {
+            record(limit + 1, "add", String.format("step slowdown p90 %.1fx the best window, %s", ratio,
+                    memoryKnown ? availableMb + " MB available" : "memory unknown"), p90, availableMb, perWorkerMb);
+        }
+    }
+
+    private void record(int to, String action, String reason, double p90, long availableMb, long perWorkerMb) {
+        Decision decision = new Decision(System.currentTimeMillis(), limit, to, action, reason, p90,
+                bestSlowdown == Double.MAX_VALUE ? Double.NaN : bestSlowdown, availableMb, perWorkerMb);
+        decisions.add(decision);
+        logger.info("Workers {} -> {} ({}): {}{}", decision.from(), decision.to(), action, reason,
+                Double.isNaN(p90) ? "" : String.format(" [step slowdown p90 %.2f, best %.2f, ~%d MB per worker]",
+                        p90, decision.bestSlowdownP90(), perWorkerMb));
+        limit = to;
+    }
+
+    /**
+     * Peak RSS of recent scenarios' driver and browsers (resource_monitor), or the configured estimate.
+     */
+    private long perWorkerMemoryMb() {
+        if (scenarioPeakRssMb.isEmpty()) {
+            return memoryPerWorkerMb;
+        }
+        List<Long> recent = scenarioPeakRssMb.subList(Math.max(0, scenarioPeakRssMb.size() - 10), scenarioPeakRssMb.size());
+        return Math.max(1, Collections.max(recent));
+    }
+
+    /**
+     * MemAvailable of the host from /proc/meminfo, or -1 when not on Linux.
+     */
+    static long availableMemoryMb() {
+        try {
+            for (String line : Files.readAllLines(Paths.get("/proc/meminfo"))) {
+                if (line.startsWith("MemAvailable:")) {
+                    return Long.parseLong(line.replaceAll("\\D", "")) / 1024;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Available memory unknown: {}", e.getMessage());
+        }
+        return -1;
+    }
+
+    // ==================== STATE ====================
+
+    /**
+     * Threads to provide scenarios on; the controller decides how many of them run at once.
+     */
+    public int getMax() {
+        return max;
+    }
+
+    public synchronized int getLimit() {
+        return limit;
+    }
+
+    public synchronized List<Decision> getDecisions() {
+        return new ArrayList<>(decisions);
+    }
+
+    /**
+     * Returns e.g. "started 4, peak 9, final 8 of max 16 (12 decisions: 6 add, 4 hold, 2 back off), 1 idle driver closed"
+     */
+    public synchronized String summary() {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        decisions.stream().skip(1).forEach(d -> counts.merge(d.action(), 1, Integer::sum));
+        StringJoiner actions = new StringJoiner(", ");
+        counts.forEach((action, count) -> actions.add(count + " " + action));
+        return String.format("started %d, peak %d, final %d of max %d (%d decisions%s)%s", decisions.get(0).to(),
+                peak, limit, max, decisions.size() - 1, counts.isEmpty() ? "" : ": " + actions,
+                closedDrivers == 0 ? "" : String.format(", %d idle driver%s closed", closedDrivers,
+                        closedDrivers == 1 ? "" : "s"));
+    }
+
+    private static double round(double ratio) {
+        return Math.round(ratio * 100) / 100.0;
+    }
+
+    /**
+     * Writes the decisions to target/adaptive-workers.json.
+     */
+    public synchronized void writeReport() {
+        JSONArray array = new JSONArray();
+        for (Decision d : decisions) {
+            array.put(new JSONObject()
+                    .put("atMillis", d.atMillis())
+                    .put("from", d.from())
+                    .put("to", d.to())
+                    .put("action", d.action())
+                    .put("reason", d.reason())
+                    .put("slowdownP90", Double.isNaN(d.slowdownP90()) ? JSONObject.NULL : round(d.slowdownP90()))
+                    .put("bestSlowdownP90", Double.isNaN(d.bestSlowdownP90()) ? JSONObject.NULL : round(d.bestSlowdownP90()))
+                    .put("availableMb", d.availableMb())
+                    .put("perWorkerMb", d.perWorkerMb()));
+        }
+        JSONObject report = new JSONObject()
+                .put("max", max)
+                .put("peak", peak)
+                .put("final", limit)
+                .put("closedDrivers", closedDrivers)
+                .put("holdFactor", holdFactor)
+                .put("backoffFactor", backoffFactor)
+                .put("memoryReserveMb", memoryReserveMb)
+                .put("decisions", array);
+        Path path = Paths.get(REPORT);
+        try {
+            Files.createDirectories(path.getParent());
+            Files.writeString(path, report.toString(2), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            logger.warn("Could not write adaptive worker report {}: {}", path, e.getMessage());
+        }
+    }
+}
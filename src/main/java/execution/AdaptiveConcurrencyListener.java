@@ -0,0 +1,31 @@
+package execution;
+
+import org.testng.IAnnotationTransformer;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.annotations.IDataProviderAnnotation;
+
+import java.lang.reflect.Method;
+
+/**
+ * Runs the scenario data provider in parallel when -Dworkers=auto, with one thread per possible
+ * worker; {@link AdaptiveConcurrency} decides how many of them run a scenario at a time.
+ * Annotation transformers must be registered in the suite file (TestNg.xml).
+ */
+public class AdaptiveConcurrencyListener implements IAnnotationTransformer, ISuiteListener {
+
+    @Override
+    public void transform(IDataProviderAnnotation annotation, Method method) {
+        if (AdaptiveConcurrency.isEnabled()) {
+            annotation.setParallel(true);
+        }
+    }
+
+    @Override
+    public void onStart(ISuite suite) {
+        AdaptiveConcurrency adaptive = AdaptiveConcurrency.getInstance();
+        if (adaptive != null) {
+            suite.getXmlSuite().setDataProviderThreadCount(adaptive.getMax());
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package execution;
+
+import io.cucumber.testng.Pickle;
+import io.cucumber.testng.PickleWrapper;
+import utilze.ExcelData;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One run of an Excel-driven scenario: the scenario's pickle plus the index of a data row.
+ * A scenario tagged @excel:Data/login.xlsx:Sheet1 (sheet optional, default first sheet)
+ * is expanded into one test per data row. Only the row index is held here; the row itself
+ * is read from {@link ExcelData} when the test starts.
+ *
+ * Each row has its own scenario id ("features/login.feature:12[row 3]") for timings and retries.
+ */
+public class ExcelRowPickle implements PickleWrapper {
+
+    public static final String TAG_PREFIX = "@excel:";
+
+    private static final ThreadLocal<ExcelRowPickle> current = new ThreadLocal<>();
+
+    private final PickleWrapper pickleWrapper;
+    private final String file;
+    private final String sheet;
+    private final int index;
+
+    private ExcelRowPickle(PickleWrapper pickleWrapper, String file, String sheet, int index) {
+        this.pickleWrapper = pickleWrapper;
+        this.file = file;
+        this.sheet = sheet;
+        this.index = index;
+    }
+
+    /**
+     * Replaces every data provider row whose pickle has an @excel tag with one row per
+     * Excel data row. Other rows are returned unchanged.
+     */
+    public static List<Object[]> expand(List<Object[]> rows) {
+        List<Object[]> expanded = new ArrayList<>();
+        for (Object[] row : rows) {
+            PickleWrapper pickleWrapper = (PickleWrapper) row[0];
+            String tag = pickleWrapper.getPickle().getTags().stream()
+                    .filter(t -> t.startsWith(TAG_PREFIX))
+                    .findFirst()
+                    .orElse(null);
+            if (tag == null) {
+                expanded.add(row);
+                continue;
+            }
+
+            ExcelData.Source source = ExcelData.Source.parse(tag.substring(TAG_PREFIX.length()));
+            int count = ExcelData.rowCount(source.file(), source.sheet());
+            for (int i = 0; i < count; i++) {
+                Object[] copy = row.clone();
+                copy[0] = new ExcelRowPickle(pickleWrapper, source.file(), source.sheet(), i);
+                expanded.add(copy);
+            }
+        }
+        return expanded;
+    }
+
+    /**
+     * Scenario id of the data row being run on this thread, or the plain id otherwise.
+     */
+    public static String currentScenarioId(String baseId) {
+        ExcelRowPickle row = current.get();
+        return row == null ? baseId : baseId + row.rowSuffix();
+    }
+
+    /**
+     * Reads the data row and binds it to the current thread for the scenario's steps.
+     */
+    public void bind() {
+        current.set(this);
+        ExcelData.bind(ExcelData.row(file, sheet, index));
+    }
+
+    public static void unbind() {
+        current.remove();
+        ExcelData.unbind();
+    }
+
+    public String getScenarioId() {
+        Pickle pickle = getPickle();
+        return ScenarioTimingStore.scenarioId(pickle.getUri(), pickle.getLine()) + rowSuffix();
+    }
+
+    @Override
+    public Pickle getPickle() {
+        return pickleWrapper.getPickle();
+    }
+
+    private String rowSuffix() {
+        return "[row " + (index + 1) + "]";
+    }
+
+    @Override
+    public String toString() {
+        return pickleWrapper + " " + rowSuffix();
+    }
+}
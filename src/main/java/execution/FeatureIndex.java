@@ -0,0 +1,217 @@
+package execution;
+
+import io.cucumber.gherkin.GherkinParser;
+import io.cucumber.messages.types.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Index of features and scenarios (pickles), built once from the parsed Gherkin.
+ * Holds feature tags, scenario-only tags, Scenario Outline rows and locations, keyed
+ * by the same id as {@link ScenarioTimingStore#scenarioId}.
+ * The index is immutable after it is built, so hooks, the scheduler and reporting
+ * can query it from any thread without locking.
+ */
+public class FeatureIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeatureIndex.class);
+
+    private static final String DEFAULT_FEATURES_DIR = "src/test/resources/features";
+
+    private static volatile FeatureIndex instance;
+
+    private final Map<String, ScenarioEntry> scenarios;
+    private final Map<String, FeatureEntry> features;
+
+    private FeatureIndex(Map<String, ScenarioEntry> scenarios, Map<String, FeatureEntry> features) {
+        this.scenarios = Collections.unmodifiableMap(scenarios);
+        this.features = Collections.unmodifiableMap(features);
+    }
+
+    /**
+     * Returns the index of the default features directory, building it on first use.
+     * Call early (e.g. in @BeforeAll) so scenarios never pay for the parse.
+     */
+    public static FeatureIndex getInstance() {
+        if (instance == null) {
+            synchronized (FeatureIndex.class) {
+                if (instance == null) {
+                    instance = build(Paths.get(System.getProperty("features.dir", DEFAULT_FEATURES_DIR)));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Parses every .feature file under the given directory.
+     */
+    public static FeatureIndex build(Path featuresDir) {
+        long start = System.currentTimeMillis();
+        Map<String, ScenarioEntry> scenarios = new LinkedHashMap<>();
+        Map<String, FeatureEntry> features = new LinkedHashMap<>();
+
+        try (Stream<Path> files = Files.walk(featuresDir)) {
+            List<Path> featureFiles = files.filter(p -> p.toString().endsWith(".feature")).sorted().toList();
+            for (Path feature : featureFiles) {
+                parseFeature(feature, scenarios, features);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read feature files from: " + featuresDir, e);
+        }
+
+        logger.info("Indexed {} features and {} scenarios in {}ms",
+                features.size(), scenarios.size(), System.currentTimeMillis() - start);
+        return new FeatureIndex(scenarios, features);
+    }
+
+    // ==================== QUERIES ====================
+
+    public Collection<ScenarioEntry> getScenarios() {
+        return scenarios.values();
+    }
+
+    public Collection<FeatureEntry> getFeatures() {
+        return features.values();
+    }
+
+    /**
+     * Looks up a scenario by id (see {@link ScenarioTimingStore#scenarioId}), or null.
+     */
+    public ScenarioEntry getScenario(String scenarioId) {
+        return scenarios.get(scenarioId);
+    }
+
+    /**
+     * Looks up a scenario by the URI and line Cucumber reports for it, or null.
+     */
+    public ScenarioEntry getScenario(URI featureUri, int line) {
+        return getScenario(ScenarioTimingStore.scenarioId(featureUri, line));
+    }
+
+    /**
+     * Looks up a feature by its relative path, or null.
+     */
+    public FeatureEntry getFeature(String uri) {
+        return features.get(uri);
+    }
+
+    // ==================== PARSING ====================
+
+    private static void parseFeature(Path feature, Map<String, ScenarioEntry> scenarios,
+                                     Map<String, FeatureEntry> features) throws IOException {
+        String uri = feature.toString().replace('\\', '/');
+        List<Envelope> envelopes;
+        try (InputStream in = Files.newInputStream(feature)) {
+            envelopes = GherkinParser.builder()
+                    .includeSource(false)
+                    .build()
+                    .parse(uri, in)
+                    .toList();
+        }
+
+        Optional<Feature> parsedFeature = envelopes.stream()
+                .map(Envelope::getGherkinDocument).flatMap(Optional::stream)
+                .map(GherkinDocument::getFeature).flatMap(Optional::stream)
+                .findFirst();
+        if (parsedFeature.isEmpty()) {
+            logger.debug("No feature found in: {}", uri);
+            return;
+        }
+
+        Feature gherkinFeature = parsedFeature.get();
+        Set<String> featureTags = gherkinFeature.getTags().stream().map(Tag::getName)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        features.put(uri, new FeatureEntry(uri, gherkinFeature.getName(),
+                gherkinFeature.getLocation().getLine().intValue(), Collections.unmodifiableSet(featureTags)));
+
+        // Map AST node ids to scenario lines and Examples rows
+        Map<String, Integer> lines = new HashMap<>();
+        Map<String, Map<String, String>> rows = new HashMap<>();
+        collectNodes(gherkinFeature.getChildren(), lines, rows);
+
+        envelopes.stream()
+                .map(Envelope::getPickle).flatMap(Optional::stream)
+                .forEach(pickle -> {
+                    List<String> nodeIds = pickle.getAstNodeIds();
+                    String scenarioNode = nodeIds.get(0);
+                    // The last node id is the Examples row for outlines, the Scenario otherwise
+                    String rowNode = nodeIds.get(nodeIds.size() - 1);
+                    int scenarioLine = lines.getOrDefault(scenarioNode, 0);
+                    int line = lines.getOrDefault(rowNode, scenarioLine);
+
+                    Set<String> tags = pickle.getTags().stream().map(PickleTag::getName)
+                            .collect(Collectors.toCollection(LinkedHashSet::new));
+                    Set<String> scenarioTags = tags.stream().filter(tag -> !featureTags.contains(tag))
+                            .collect(Collectors.toCollection(LinkedHashSet::new));
+
+                    String id = uri + ":" + line;
+                    scenarios.put(id, new ScenarioEntry(id, uri, gherkinFeature.getName(), pickle.getName(),
+                            scenarioLine, line,
+                            Collections.unmodifiableSet(tags),
+                            Collections.unmodifiableSet(scenarioTags),
+                            rows.getOrDefault(rowNode, Map.of()),
+                            pickle.getSteps().stream().map(PickleStep::getText).toList()));
+                });
+    }
+
+    private static void collectNodes(List<FeatureChild> children, Map<String, Integer> lines,
+                                     Map<String, Map<String, String>> rows) {
+        for (FeatureChild child : children) {
+            child.getScenario().ifPresent(scenario -> collectNodes(scenario, lines, rows));
+            child.getRule().ifPresent(rule -> rule.getChildren().forEach(
+                    ruleChild -> ruleChild.getScenario().ifPresent(scenario -> collectNodes(scenario, lines, rows))));
+        }
+    }
+
+    private static void collectNodes(Scenario scenario, Map<String, Integer> lines,
+                                     Map<String, Map<String, String>> rows) {
+        lines.put(scenario.getId(), scenario.getLocation().getLine().intValue());
+        for (Examples examples : scenario.getExamples()) {
+            List<String> headers = examples.getTableHeader()
+                    .map(header -> header.getCells().stream().map(TableCell::getValue).toList())
+                    .orElse(List.of());
+            for (TableRow row : examples.getTableBody()) {
+                lines.put(row.getId(), row.getLocation().getLine().intValue());
+                Map<String, String> values = new LinkedHashMap<>();
+                for (int i = 0; i < headers.size() && i < row.getCells().size(); i++) {
+                    values.put(headers.get(i), row.getCells().get(i).getValue());
+                }
+                rows.put(row.getId(), Collections.unmodifiableMap(values));
+            }
+        }
+    }
+
+    /**
+     * A feature file with its feature-level tags.
+     */
+    public record FeatureEntry(String uri, String name, int line, Set<String> tags) {
+    }
+
+    /**
+     * A single executable scenario; Scenario Outline rows are separate entries.
+     * @param scenarioLine Line of the Scenario / Scenario Outline keyword
+     * @param line         Line of the Examples row for outlines, otherwise the scenario line
+     * @param tags         All tags (feature, rule, scenario and examples)
+     * @param scenarioTags Tags excluding the feature-level ones
+     * @param exampleRow   Examples header -> value, empty for plain scenarios
+     */
+    public record ScenarioEntry(String id, String uri, String featureName, String name,
+                                int scenarioLine, int line, Set<String> tags, Set<String> scenarioTags,
+                                Map<String, String> exampleRow, List<String> steps) {
+
+        public boolean isOutlineRow() {
+            return !exampleRow.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,369 @@
+package execution;
+
+import io.cucumber.cucumberexpressions.Expression;
+import io.cucumber.cucumberexpressions.ExpressionFactory;
+import io.cucumber.cucumberexpressions.ParameterTypeRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Change-impact test selection.
+ * Builds a dependency index: feature step -> step definition class (steps.*)
+ * -> page objects (pages.*) -> locator classes, then selects only the scenarios
+ * reached by a set of changed files, with the dependency chain that explains each selection.
+ *
+ * Changed files come from -Dimpact.files=a,b or from git (-Dimpact.base=origin/main).
+ * Changes to framework code (utilze, Initialization, config, hooks, build files) select everything.
+ * A changed test data file (Data/) selects the scenarios that name it, in an @excel: tag or in
+ * their step text.
+ */
+public class ImpactSelector {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImpactSelector.class);
+
+    private static final String STEPS_DIR = "src/test/java/steps";
+    private static final String PAGES_DIR = "src/main/java/pages";
+    private static final String DATA_DIR = "Data/";
+
+    // Files that never affect test execution
+    private static final List<String> IGNORED_SUFFIXES = List.of(".md", ".txt", ".gitignore", ".dockerignore");
+    private static final List<String> IGNORED_PREFIXES = List.of(".idea/", ".vscode/", ".github/");
+
+    private static final Pattern STEP_ANNOTATION = Pattern.compile(
+            "@(?:Given|When|Then|And|But)\\(\\s*\"((?:[^\"\\\\]|\\\\.)*)\"\\s*\\)");
+    private static final Pattern PACKAGE = Pattern.compile("^\\s*package\\s+([\\w.]+)\\s*;", Pattern.MULTILINE);
+    private static final Pattern IMPORT = Pattern.compile("^\\s*import\\s+([\\w.]+(?:\\.\\*)?)\\s*;", Pattern.MULTILINE);
+
+    private final FeatureIndex featureIndex;
+    private final Map<String, SourceClass> classesByPath = new LinkedHashMap<>();
+    private final Map<String, SourceClass> classesByName = new HashMap<>();
+    private final Map<String, List<Expression>> stepExpressions = new LinkedHashMap<>();
+
+    public ImpactSelector(FeatureIndex featureIndex) {
+        this.featureIndex = featureIndex;
+        indexSources(Paths.get(PAGES_DIR));
+        indexSources(Paths.get(STEPS_DIR));
+        resolveDependencies();
+    }
+
+    /**
+     * True when impact selection was requested for this run.
+     */
+    public static boolean isEnabled() {
+        return System.getProperty("impact.base") != null || System.getProperty("impact.files") != null;
+    }
+
+    /**
+     * Changed files from -Dimpact.files, or from git relative to -Dimpact.base
+     * (committed changes since the merge base, plus uncommitted changes).
+     */
+    public static Set<String> changedFilesFromSystemProperties() {
+        Set<String> changed = new TreeSet<>();
+        String files = System.getProperty("impact.files");
+        if (files != null && !files.isBlank()) {
+            Arrays.stream(files.split(",")).map(String::trim).filter(f -> !f.isEmpty()).forEach(changed::add);
+        }
+        String base = System.getProperty("impact.base");
+        if (base != null && !base.isBlank()) {
+            changed.addAll(git("diff", "--name-only", base + "...HEAD"));
+            changed.addAll(git("diff", "--name-only", "HEAD"));
+        }
+        return changed;
+    }
+
+    /**
+     * Selects the scenarios affected by the changed files.
+     * @return Selected scenario ids mapped to the reasons they were selected
+     */
+    public Map<String, List<String>> select(Collection<String> changedFiles) {
+        Map<String, List<String>> selected = new LinkedHashMap<>();
+
+        for (String changed : changedFiles) {
+            String file = changed.replace('\\', '/');
+
+            if (isIgnored(file)) {
+                continue;
+            }
+
+            // Feature file: its own scenarios
+            if (file.endsWith(".feature")) {
+                for (FeatureIndex.ScenarioEntry scenario : featureIndex.getScenarios()) {
+                    if (scenario.uri().equals(file)) {
+                        addReason(selected, scenario.id(), "feature file changed: " + file);
+                    }
+                }
+                continue;
+            }
+
+            // Test data: the scenarios that read it
+            if (file.startsWith(DATA_DIR)) {
+                selectDataReaders(selected, file);
+                continue;
+            }
+
+            // Page object, locator or step class: follow the dependency chain
+            SourceClass changedClass = classesByPath.get(file);
+            if (changedClass != null) {
+                for (Map.Entry<SourceClass, List<String>> stepClass : dependentStepClasses(changedClass).entrySet()) {
+                    String chain = String.join(" -> ", stepClass.getValue());
+                    for (FeatureIndex.ScenarioEntry scenario : featureIndex.getScenarios()) {
+                        scenario.steps().stream()
+                                .filter(step -> matches(stepClass.getKey(), step))
+                                .findFirst()
+                                .ifPresent(step -> addReason(selected, scenario.id(),
+                                        "step '" + step + "' -> " + chain + " (changed)"));
+                    }
+                }
+                continue;
+            }
+
+            // Anything else that is code or configuration is shared by every scenario
+            for (FeatureIndex.ScenarioEntry scenario : featureIndex.getScenarios()) {
+                addReason(selected, scenario.id(), "framework file changed: " + file);
+            }
+        }
+
+        logger.info("Impact selection: {} changed files -> {}/{} scenarios",
+                changedFiles.size(), selected.size(), featureIndex.getScenarios().size());
+        return selected;
+    }
+
+    /**
+     * Selects the scenarios whose @excel: tag names the data file, or whose step text mentions it.
+     */
+    private void selectDataReaders(Map<String, List<String>> selected, String file) {
+        // The path as a whole, so Data/login.xlsx does not match Data/login.xlsx.bak
+        Pattern mention = Pattern.compile("(?<![\\w./-])" + Pattern.quote(file) + "(?![\\w./-])");
+        for (FeatureIndex.ScenarioEntry scenario : featureIndex.getScenarios()) {
+            for (String tag : scenario.tags()) {
+                if (tag.startsWith(ExcelRowPickle.TAG_PREFIX)
+                        && tag.substring(ExcelRowPickle.TAG_PREFIX.length()).split(":")[0].equals(file)) {
+                    addReason(selected, scenario.id(), "tag " + tag + " -> data file changed: " + file);
+                }
+            }
+            scenario.steps().stream()
+                    .filter(step -> mention.matcher(step).find())
+                    .findFirst()
+                    .ifPresent(step -> addReason(selected, scenario.id(),
+                            "step '" + step + "' -> data file changed: " + file));
+        }
+    }
+
+    /**
+     * Prints the selection for the changed files given by system properties.
+     * Usage: mvn exec:java -Dexec.mainClass=execution.ImpactSelector -Dimpact.base=origin/main
+     */
+    public static void main(String[] args) {
+        Set<String> changed = changedFilesFromSystemProperties();
+        Map<String, List<String>> selected = new ImpactSelector(FeatureIndex.getInstance())
+                .select(changed);
+
+        System.out.println("Changed files: " + changed);
+        System.out.println("Selected scenarios: " + selected.size());
+        selected.forEach((id, reasons) -> {
+            System.out.println(id);
+            reasons.forEach(reason -> System.out.println("    because " + reason));
+        });
+    }
+
+    // ==================== DEPENDENCY INDEX ====================
+
+    /**
+     * Finds every step class that (transitively) uses the changed class,
+     * with the dependency chain from the step class down to the changed class.
+     */
+    private Map<SourceClass, List<String>> dependentStepClasses(SourceClass changed) {
+        Map<SourceClass, List<String>> chains = new LinkedHashMap<>();
+        Deque<List<SourceClass>> queue = new ArrayDeque<>();
+        queue.add(List.of(changed));
+        Set<SourceClass> visited = new HashSet<>(Set.of(changed));
+
+        while (!queue.isEmpty()) {
+            List<SourceClass> path = queue.poll();
+            SourceClass current = path.get(path.size() - 1);
+
+            if (current.isStepClass()) {
+                List<String> names = new ArrayList<>();
+                for (int i = path.size() - 1; i >= 0; i--) {
+                    names.add(path.get(i).name());
+                }
+                chains.putIfAbsent(current, names);
+            }
+
+            for (SourceClass dependent : classesByPath.values()) {
+                if (dependent.dependencies().contains(current) && visited.add(dependent)) {
+                    List<SourceClass> next = new ArrayList<>(path);
+                    next.add(dependent);
+                    queue.add(next);
+                }
+            }
+        }
+        return chains;
+    }
+
+    private boolean matches(SourceClass stepClass, String stepText) {
+        return stepExpressions.getOrDefault(stepClass.name(), List.of()).stream()
+                .anyMatch(expression -> expression.match(stepText) != null);
+    }
+
+    private void indexSources(Path root) {
+        if (!Files.isDirectory(root)) {
+            logger.debug("Source directory not found: {}", root);
+            return;
+        }
+        ExpressionFactory expressionFactory = new ExpressionFactory(new ParameterTypeRegistry(Locale.ENGLISH));
+
+        try (Stream<Path> files = Files.walk(root)) {
+            for (Path file : files.filter(p -> p.toString().endsWith(".java")).sorted().toList()) {
+                String source = Files.readString(file);
+                Matcher packageMatcher = PACKAGE.matcher(source);
+                String packageName = packageMatcher.find() ? packageMatcher.group(1) : "";
+                String simpleName = file.getFileName().toString().replace(".java", "");
+                String name = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+
+                SourceClass sourceClass = new SourceClass(name, packageName, simpleName,
+                        file.toString().replace('\\', '/'), source, new HashSet<>());
+                classesByPath.put(sourceClass.path(), sourceClass);
+                classesByName.put(name, sourceClass);
+
+                List<Expression> expressions = new ArrayList<>();
+                Matcher stepMatcher = STEP_ANNOTATION.matcher(source);
+                while (stepMatcher.find()) {
+                    expressions.add(expressionFactory.createExpression(unescapeJava(stepMatcher.group(1))));
+                }
+                if (!expressions.isEmpty()) {
+                    stepExpressions.put(name, expressions);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to index sources in: " + root, e);
+        }
+    }
+
+    /**
+     * A class depends on another known class when it mentions its simple name
+     * and can see it (same package, single import or wildcard import).
+     */
+    private void resolveDependencies() {
+        // Word-bounded, so Login (or pages.Login.Login) does not match LoginPath
+        Map<SourceClass, Pattern> simpleNames = new HashMap<>();
+        Map<SourceClass, Pattern> qualifiedNames = new HashMap<>();
+        for (SourceClass candidate : classesByName.values()) {
+            simpleNames.put(candidate, Pattern.compile("\\b" + Pattern.quote(candidate.simpleName()) + "\\b"));
+            qualifiedNames.put(candidate, Pattern.compile("(?<![\\w.])" + Pattern.quote(candidate.name()) + "\\b"));
+        }
+
+        for (SourceClass sourceClass : classesByPath.values()) {
+            Set<String> imports = new HashSet<>();
+            Matcher importMatcher = IMPORT.matcher(sourceClass.source());
+            while (importMatcher.find()) {
+                imports.add(importMatcher.group(1));
+            }
+
+            for (SourceClass candidate : classesByName.values()) {
+                if (candidate == sourceClass) {
+                    continue;
+                }
+                boolean visible = candidate.packageName().equals(sourceClass.packageName())
+                        || imports.contains(candidate.name())
+                        || imports.contains(candidate.packageName() + ".*");
+                boolean mentioned = simpleNames.get(candidate).matcher(sourceClass.source()).find();
+                if ((visible && mentioned) || qualifiedNames.get(candidate).matcher(sourceClass.source()).find()) {
+                    sourceClass.dependencies().add(candidate);
+                }
+            }
+        }
+    }
+
+    // ==================== HELPERS ====================
+
+    private static boolean isIgnored(String file) {
+        return IGNORED_SUFFIXES.stream().anyMatch(file::endsWith)
+                || IGNORED_PREFIXES.stream().anyMatch(file::startsWith);
+    }
+
+    private static void addReason(Map<String, List<String>> selected, String scenarioId, String reason) {
+        List<String> reasons = selected.computeIfAbsent(scenarioId, k -> new ArrayList<>());
+        if (!reasons.contains(reason)) {
+            reasons.add(reason);
+        }
+    }
+
+    private static String unescapeJava(String literal) {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < literal.length(); i++) {
+            char c = literal.charAt(i);
+            if (c == '\\' && i + 1 < literal.length()) {
+                char next = literal.charAt(++i);
+                out.append(switch (next) {
+                    case 'n' -> '\n';
+                    case 't' -> '\t';
+                    default -> next;
+                });
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    private static List<String> git(String... args) {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.addAll(Arrays.asList(args));
+        try {
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            String output;
+            try (InputStream in = process.getInputStream()) {
+                output = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            if (process.waitFor() != 0) {
+                throw new IllegalStateException("git command failed: " + command + "\n" + output);
+            }
+            return output.lines().map(String::trim).filter(line -> !line.isEmpty()).toList();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to run git: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while running git", e);
+        }
+    }
+
+    /**
+     * A page object, locator class or step definition class found in the sources.
+     */
+    private record SourceClass(String name, String packageName, String simpleName,
+                               String path, String source, Set<SourceClass> dependencies) {
+
+        boolean isStepClass() {
+            return name.startsWith("steps.");
+        }
+
+        // Identity semantics: the dependency set is mutable and may be cyclic
+        @Override
+        public boolean equals(Object other) {
+            return this == other;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package execution;
+
+import Initialization.BrowserServer;
+import org.json.JSONObject;
+import utilze.ResourceMonitor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Samples the resources of a load test once per second: resident memory and CPU time of the
+ * JVM and all its child processes (one Playwright driver per virtual user, the browser servers
+ * and the few browsers they share). Divided by the number of virtual users, this sizes load
+ * hosts: peak memory per user and CPU cores per active user, with the shared browsers' cost
+ * spread over the users. The number of browsers is reported to confirm they are shared.
+ * Memory is read from /proc (Linux); elsewhere only CPU time is reported.
+ */
+public class LoadResources {
+
+    private static final long SAMPLE_INTERVAL = 1000; // 1 second
+
+    private final LoadTest load;
+
+    private volatile Thread sampler;
+    private long peakRssBytes;
+    private int peakProcesses;
+    private long peakBrowsers;
+    private long startCpuMs = -1;
+    private long maxCpuMs;
+    private double userSeconds;
+
+    LoadResources(LoadTest load) {
+        this.load = load;
+    }
+
+    void start() {
+        sample();
+        sampler = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    Thread.sleep(SAMPLE_INTERVAL);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                sample();
+            }
+        }, "load-resources");
+        sampler.setDaemon(true);
+        sampler.start();
+    }
+
+    void stop() {
+        Thread current = sampler;
+        if (current != null) {
+            current.interrupt();
+        }
+        sample();
+    }
+
+    private synchronized void sample() {
+        List<ProcessHandle> processes = new ArrayList<>();
+        processes.add(ProcessHandle.current());
+        ProcessHandle.current().descendants().forEach(processes::add);
+
+        long rss = 0;
+        long cpuMs = 0;
+        for (ProcessHandle process : processes) {
+            rss += rssBytes(process.pid());
+            cpuMs += ResourceMonitor.cpuMillis(process);
+        }
+        peakRssBytes = Math.max(peakRssBytes, rss);
+        peakProcesses = Math.max(peakProcesses, processes.size());
+        peakBrowsers = Math.max(peakBrowsers, BrowserServer.browserProcesses());
+        if (startCpuMs < 0) {
+            startCpuMs = cpuMs;
+        }
+        // Exited processes drop out of the sum, so keep the highest total seen
+        maxCpuMs = Math.max(maxCpuMs, cpuMs);
+        userSeconds += load.getActiveUsers() * SAMPLE_INTERVAL / 1000.0;
+    }
+
+    private static long rssBytes(long pid) {
+        return Math.max(0, ResourceMonitor.rssBytes(pid)); // Not Linux, or the process just exited
+    }
+
+    /**
+     * Returns peak memory, CPU time and the derived per-user figures.
+     */
+    public synchronized JSONObject toJson() {
+        int users = Math.max(1, load.getPeakUsers());
+        double cpuSeconds = Math.max(0, maxCpuMs - startCpuMs) / 1000.0;
+        JSONObject json = new JSONObject();
+        json.put("peakUsers", load.getPeakUsers());
+        json.put("peakProcesses", peakProcesses);
+        json.put("peakBrowsers", peakBrowsers);
+        json.put("peakRssMb", peakRssBytes / (1024 * 1024));
+        json.put("rssPerUserMb", peakRssBytes / (1024 * 1024) / users);
+        json.put("cpuSeconds", Math.round(cpuSeconds * 10) / 10.0);
+        json.put("coresPerUser", userSeconds == 0 ? 0 : Math.round(cpuSeconds / userSeconds * 100) / 100.0);
+        return json;
+    }
+
+    /**
+     * Returns e.g. "peak 3120 MB RSS (156 MB per user), 0.35 cores per active user, 2 browsers, 42 processes"
+     */
+    public String summary() {
+        JSONObject json = toJson();
+        return String.format("peak %d MB RSS (%d MB per user), %.2f cores per active user, %d browsers, %d processes",
+                json.getLong("peakRssMb"), json.getLong("rssPerUserMb"), json.getDouble("coresPerUser"),
+                json.getLong("peakBrowsers"), json.getInt("peakProcesses"));
+    }
+}
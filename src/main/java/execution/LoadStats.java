@@ -0,0 +1,197 @@
+package execution;
+
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.*;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utilze.TimingSeries;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+/**
+ * Cucumber plugin that aggregates a load test ({@link LoadTest}): throughput and per-step
+ * latency percentiles, overall and per time window, plus the resource usage per virtual user.
+ * Writes the report as JSON when the run finishes and prints a summary.
+ *
+ * Register with: "execution.LoadStats:target/load-report.json"
+ */
+public class LoadStats implements ConcurrentEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadStats.class);
+
+    private static final int[] PERCENTILES = {50, 90, 95, 99};
+    private static final String SEPARATOR = "=".repeat(120);
+
+    private final File file;
+    private final Map<String, List<Double>> steps = new LinkedHashMap<>();
+    private final SortedMap<Long, Window> windows = new TreeMap<>();
+    private long runStartMillis;
+    private long lastEventMillis;
+    private int iterations;
+    private int failures;
+
+    /**
+     * Iterations and step latencies of one reporting window.
+     */
+    private static class Window {
+        int iterations;
+        int failures;
+        int peakUsers;
+        final Map<String, List<Double>> steps = new LinkedHashMap<>();
+    }
+
+    public LoadStats(File file) {
+        this.file = file;
+    }
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestRunStarted.class, this::onTestRunStarted);
+        publisher.registerHandlerFor(TestStepFinished.class, this::onTestStepFinished);
+        publisher.registerHandlerFor(TestCaseFinished.class, this::onTestCaseFinished);
+        publisher.registerHandlerFor(TestRunFinished.class, this::onTestRunFinished);
+    }
+
+    // ==================== EVENT HANDLERS ====================
+
+    private synchronized void onTestRunStarted(TestRunStarted event) {
+        runStartMillis = event.getInstant().toEpochMilli();
+    }
+
+    private synchronized void onTestStepFinished(TestStepFinished event) {
+        if (!(event.getTestStep() instanceof PickleStepTestStep pickleStep)
+                || event.getResult().getStatus() != Status.PASSED) {
+            return;
+        }
+        String step = pickleStep.getStep().getKeyword() + pickleStep.getStep().getText();
+        double ms = event.getResult().getDuration().toNanos() / 1_000_000.0;
+        steps.computeIfAbsent(step, k -> new ArrayList<>()).add(ms);
+        window(event).steps.computeIfAbsent(step, k -> new ArrayList<>()).add(ms);
+    }
+
+    private synchronized void onTestCaseFinished(TestCaseFinished event) {
+        boolean failed = event.getResult().getStatus() != Status.PASSED;
+        Window window = window(event);
+        iterations++;
+        window.iterations++;
+        if (failed) {
+            failures++;
+            window.failures++;
+        }
+    }
+
+    private void onTestRunFinished(TestRunFinished event) {
+        JSONObject report = toJson();
+        try {
+            File parent = file.getAbsoluteFile().getParentFile();
+            if (parent != null) {
+                parent.mkdirs();
+            }
+            Files.writeString(file.toPath(), report.toString(2), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            logger.error("Could not write load report {}: {}", file, e.getMessage());
+        }
+        printSummary(report);
+    }
+
+    private Window window(Event event) {
+        LoadTest load = LoadTest.getCurrent();
+        long start = load != null ? load.getStartMillis() : runStartMillis;
+        long windowMs = load != null ? load.getWindowMs() : 10000;
+        lastEventMillis = Math.max(lastEventMillis, event.getInstant().toEpochMilli());
+        long index = Math.max(0, (event.getInstant().toEpochMilli() - start) / windowMs);
+        Window window = windows.computeIfAbsent(index, k -> new Window());
+        if (load != null) {
+            window.peakUsers = Math.max(window.peakUsers, load.getActiveUsers());
+        }
+        return window;
+    }
+
+    // ==================== REPORT ====================
+
+    private synchronized JSONObject toJson() {
+        LoadTest load = LoadTest.getCurrent();
+        long windowMs = load != null ? load.getWindowMs() : 10000;
+        long start = load != null ? load.getStartMillis() : runStartMillis;
+        double elapsedSeconds = windows.isEmpty() ? 0 : (lastEventMillis - start) / 1000.0;
+
+        JSONObject json = new JSONObject();
+        if (load != null) {
+            json.put("scenario", load.getScenario());
+            json.put("users", load.getUsers());
+            json.put("rampUpS", load.getRampUpMs() / 1000);
+            json.put("durationS", load.getDurationMs() / 1000);
+            json.put("iterationsPerUser", load.getIterations());
+            json.put("resources", load.getResources().toJson());
+        }
+        json.put("iterations", iterations);
+        json.put("failures", failures);
+        json.put("throughputPerS", rate(iterations, elapsedSeconds));
+        json.put("steps", stepsJson(steps));
+
+        JSONArray timeline = new JSONArray();
+        windows.forEach((index, window) -> timeline.put(new JSONObject()
+                .put("startS", index * windowMs / 1000)
+                .put("activeUsers", window.peakUsers)
+                .put("iterations", window.iterations)
+                .put("failures", window.failures)
+                .put("throughputPerS", rate(window.iterations, windowMs / 1000.0))
+                .put("steps", stepsJson(window.steps))));
+        json.put("windows", timeline);
+        return json;
+    }
+
+    private static JSONArray stepsJson(Map<String, List<Double>> samples) {
+        JSONArray array = new JSONArray();
+        samples.forEach((step, values) -> {
+            JSONObject json = new JSONObject().put("step", step).put("count", values.size());
+            for (int percentile : PERCENTILES) {
+                json.put("p" + percentile, Math.round(TimingSeries.percentile(values, percentile)));
+            }
+            json.put("max", Math.round(Collections.max(values)));
+            array.put(json);
+        });
+        return array;
+    }
+
+    private static double rate(int count, double seconds) {
+        return seconds <= 0 ? 0 : Math.round(count / seconds * 100) / 100.0;
+    }
+
+    private void printSummary(JSONObject report) {
+        System.out.println("\n" + SEPARATOR);
+        System.out.println("LOAD TEST SUMMARY");
+        System.out.println(SEPARATOR);
+        System.out.println("Scenario        : " + report.optString("scenario", "-")
+                + " | users " + report.optInt("users") + " | ramp-up " + report.optLong("rampUpS") + "s");
+        System.out.println("Iterations      : " + report.getInt("iterations") + " (" + report.getInt("failures")
+                + " failed) | " + report.getDouble("throughputPerS") + " per second");
+        if (report.has("resources")) {
+            System.out.println("Resources       : " + LoadTest.getCurrent().getResources().summary());
+        }
+        for (Object entry : report.getJSONArray("steps")) {
+            JSONObject step = (JSONObject) entry;
+            System.out.println(String.format("Step            : p50 %5d | p90 %5d | p95 %5d | p99 %5d ms  %s",
+                    step.getLong("p50"), step.getLong("p90"), step.getLong("p95"), step.getLong("p99"),
+                    step.getString("step")));
+        }
+        for (Object entry : report.getJSONArray("windows")) {
+            JSONObject window = (JSONObject) entry;
+            long slowestP90 = 0;
+            for (Object step : window.getJSONArray("steps")) {
+                slowestP90 = Math.max(slowestP90, ((JSONObject) step).getLong("p90"));
+            }
+            System.out.println(String.format("Window %4ds    : %3d users | %6.2f it/s | %d failed | slowest step p90 %d ms",
+                    window.getLong("startS"), window.getInt("activeUsers"), window.getDouble("throughputPerS"),
+                    window.getInt("failures"), slowestP90));
+        }
+        System.out.println("Report          : " + file.getAbsolutePath());
+        System.out.println(SEPARATOR + "\n");
+    }
+}
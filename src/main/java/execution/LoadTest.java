@@ -0,0 +1,257 @@
+package execution;
+
+import Initialization.BrowserServer;
+import config.frameWorkConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Load mode: replays one scenario as concurrent virtual users (VUs).
+ * Every VU is a thread with its own Playwright driver (a Node process) and browser context.
+ * The contexts are opened in a few shared browsers (local launch-servers, see
+ * {@link BrowserServer}), so a VU costs a driver and a context rather than a browser.
+ * VUs start evenly over the ramp-up and repeat the scenario until the duration has passed
+ * (or for a fixed number of iterations). Results are collected by {@link LoadStats}.
+ *
+ * Settings (system properties):
+ *   load.users       number of virtual users (enables load mode)
+ *   load.scenario    scenario to replay: id (features/x.feature:12), tag (@removingCart) or name
+ *   load.ramp_up     seconds until the last VU has started (default 0)
+ *   load.duration    seconds from the start until VUs stop starting iterations (default 60)
+ *   load.iterations  iterations per VU instead of a duration
+ *   load.browsers    shared browsers (local browser servers) the VUs are spread across (default 2);
+ *                    ignored when browser_server points at a running server
+ *   load.window      seconds per reporting window (default 10)
+ *
+ * Run with: mvn test -Pload -Dload.users=20 -Dload.scenario=@removingCart -Denv=fixture
+ */
+public class LoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadTest.class);
+
+    private static final int DEFAULT_DURATION = 60; // seconds
+    private static final int DEFAULT_BROWSERS = 2;
+    private static final int DEFAULT_WINDOW = 10; // seconds
+    private static final int DEFAULT_SERVER_PORT = 3000;
+
+    private static volatile LoadTest current;
+
+    private final String scenario;
+    private final int users;
+    private final long rampUpMs;
+    private final long durationMs;
+    private final int iterations;
+    private final int browsers;
+    private final long windowMs;
+
+    private final AtomicInteger activeUsers = new AtomicInteger();
+    private final AtomicInteger peakUsers = new AtomicInteger();
+    private final AtomicLong completedIterations = new AtomicLong();
+    private final LoadResources resources = new LoadResources(this);
+    private volatile long startMillis;
+
+    public LoadTest(String scenario, int users, long rampUpMs, long durationMs, int iterations, int browsers,
+                    long windowMs) {
+        if (users < 1) {
+            throw new IllegalArgumentException("load.users must be at least 1, was " + users);
+        }
+        if (scenario == null || scenario.isBlank()) {
+            throw new IllegalArgumentException("load.scenario is required (scenario id, tag or name)");
+        }
+        this.scenario = scenario.trim();
+        this.users = users;
+        this.rampUpMs = Math.max(0, rampUpMs);
+        this.durationMs = durationMs;
+        this.iterations = iterations;
+        this.browsers = Math.max(1, browsers);
+        this.windowMs = Math.max(1000, windowMs);
+    }
+
+    /**
+     * True when load mode is requested (-Dload.users).
+     */
+    public static boolean isEnabled() {
+        return System.getProperty("load.users") != null;
+    }
+
+    public static LoadTest fromSystemProperties() {
+        return new LoadTest(System.getProperty("load.scenario"),
+                Integer.getInteger("load.users", 1),
+                Integer.getInteger("load.ramp_up", 0) * 1000L,
+                Integer.getInteger("load.duration", DEFAULT_DURATION) * 1000L,
+                Integer.getInteger("load.iterations", 0),
+                Integer.getInteger("load.browsers", DEFAULT_BROWSERS),
+                Integer.getInteger("load.window", DEFAULT_WINDOW) * 1000L);
+    }
+
+    /**
+     * The load test being run, or null.
+     */
+    public static LoadTest getCurrent() {
+        return current;
+    }
+
+    /**
+     * Whether a scenario is the one to replay: matches its id, one of its tags, or its name.
+     * Outline rows match by the outline's id, so every row is replayed.
+     */
+    public boolean matches(URI uri, int line, String name, Collection<String> tags) {
+        String id = ScenarioTimingStore.scenarioId(uri, line);
+        if (scenario.startsWith("@")) {
+            return tags.contains(scenario);
+        }
+        if (scenario.equals(id) || scenario.equals(name)) {
+            return true;
+        }
+        FeatureIndex.ScenarioEntry entry = FeatureIndex.getInstance().getScenario(id);
+        return entry != null && scenario.equals(entry.uri() + ":" + entry.scenarioLine());
+    }
+
+    // ==================== EXECUTION ====================
+
+    /**
+     * Runs the virtual users and blocks until all have finished.
+     * VU n runs rows[(n + iteration) % rows], so outline rows are spread evenly.
+     * @param rows      The matching scenarios
+     * @param iteration Runs one scenario on the calling VU thread; failures are recorded, not rethrown
+     */
+    public <T> void run(List<T> rows, Consumer<T> iteration) {
+        if (rows.isEmpty()) {
+            throw new IllegalArgumentException("No scenario matches load.scenario=" + scenario);
+        }
+        List<String> endpoints = startBrowserServers();
+        logger.info("Load test: {} users over {} browser server(s), ramp-up {}s, {}", users,
+                Math.max(1, endpoints.size()), rampUpMs / 1000,
+                iterations > 0 ? iterations + " iterations each" : durationMs / 1000 + "s");
+
+        current = this;
+        startMillis = System.currentTimeMillis();
+        long stopAt = startMillis + durationMs;
+        resources.start();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int n = 0; n < users; n++) {
+            int user = n;
+            long startDelay = users == 1 ? 0 : rampUpMs * user / (users - 1);
+            String endpoint = endpoints.isEmpty() ? null : endpoints.get(user % endpoints.size());
+            Thread thread = new Thread(() -> runUser(user, startDelay, endpoint, stopAt, rows, iteration), "vu-" + (user + 1));
+            threads.add(thread);
+            thread.start();
+        }
+
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("Interrupted while waiting for virtual users");
+                break;
+            }
+        }
+        resources.stop();
+        logger.info("Load test finished: {} iterations in {}s", completedIterations.get(),
+                (System.currentTimeMillis() - startMillis) / 1000);
+    }
+
+    private <T> void runUser(int user, long startDelay, String endpoint, long stopAt, List<T> rows,
+                             Consumer<T> iteration) {
+        sleep(startDelay);
+        BrowserServer.assignEndpoint(endpoint);
+        int active = activeUsers.incrementAndGet();
+        peakUsers.accumulateAndGet(active, Math::max);
+        logger.debug("Virtual user {} started ({} active)", user + 1, active);
+        try {
+            for (int done = 0; iterations > 0 ? done < iterations : System.currentTimeMillis() < stopAt; done++) {
+                try {
+                    iteration.accept(rows.get((user + done) % rows.size()));
+                } catch (Throwable t) {
+                    // Recorded by LoadStats from the scenario result; keep the user going
+                    logger.debug("Virtual user {} iteration {} failed: {}", user + 1, done + 1, t.getMessage());
+                }
+                completedIterations.incrementAndGet();
+            }
+        } finally {
+            activeUsers.decrementAndGet();
+            // The driver belongs to this thread, close it here
+            frameWorkConfig.getInstance().cleanupAll();
+            BrowserServer.assignEndpoint(null);
+        }
+    }
+
+    /**
+     * Starts load.browsers local browser servers, unless browser_server names a running server.
+     * Every VU holds a context, so the per-client context limit is raised to the number of users.
+     */
+    private List<String> startBrowserServers() {
+        if (System.getProperty("server_max_contexts") == null) {
+            System.setProperty("server_max_contexts", String.valueOf(users));
+        }
+        String configured = System.getProperty("browser_server");
+        if (configured != null && !"local".equalsIgnoreCase(configured.trim())) {
+            return List.of();
+        }
+        int basePort = Integer.getInteger("browser_server_port", DEFAULT_SERVER_PORT);
+        List<String> endpoints = new ArrayList<>();
+        for (int i = 0; i < Math.min(browsers, users); i++) {
+            // Started by the first VU connecting, with the scenario's browser and launch options
+            endpoints.add(BrowserServer.localEndpoint(basePort + i));
+        }
+        return endpoints;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ==================== STATE ====================
+
+    public String getScenario() {
+        return scenario;
+    }
+
+    public int getUsers() {
+        return users;
+    }
+
+    public long getRampUpMs() {
+        return rampUpMs;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public long getWindowMs() {
+        return windowMs;
+    }
+
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    public int getActiveUsers() {
+        return activeUsers.get();
+    }
+
+    public int getPeakUsers() {
+        return peakUsers.get();
+    }
+
+    public LoadResources getResources() {
+        return resources;
+    }
+}
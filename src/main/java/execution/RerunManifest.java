@@ -0,0 +1,150 @@
+package execution;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Tracks scenario attempts and failures, and writes a rerun manifest of failed pickles.
+ * The manifest uses Cucumber's rerun format (one "feature:line:line" entry per file), where
+ * Scenario Outline rows are listed by their Examples row line. Excel-driven rows
+ * ("feature:12[row 3]") are listed by their scenario line, so the whole sheet is rerun.
+ *
+ * Rerun mode (-Drerun=true) executes exactly the manifest entries.
+ * In-run retries (-Dretry.count=N) retry a failed scenario up to N times:
+ * - passed on a retry   -> flaky
+ * - failed all attempts -> consistently failing (written to the manifest)
+ */
+public class RerunManifest {
+
+    private static final Logger logger = LoggerFactory.getLogger(RerunManifest.class);
+
+    private static final String DEFAULT_MANIFEST = ".test-history/rerun.txt";
+
+    private static volatile RerunManifest instance;
+
+    private final Path manifestPath;
+    private final int maxRetries;
+    private final Map<String, Integer> attempts = new ConcurrentHashMap<>();
+    private final Set<String> failed = ConcurrentHashMap.newKeySet();
+    private final Set<String> flaky = ConcurrentHashMap.newKeySet();
+
+    private RerunManifest(Path manifestPath, int maxRetries) {
+        this.manifestPath = manifestPath;
+        this.maxRetries = Math.max(0, maxRetries);
+    }
+
+    // Thread-safe singleton
+    public static RerunManifest getInstance() {
+        if (instance == null) {
+            synchronized (RerunManifest.class) {
+                if (instance == null) {
+                    instance = new RerunManifest(getManifestPath(), Integer.getInteger("retry.count", 0));
+                }
+            }
+        }
+        return instance;
+    }
+
+    public static Path getManifestPath() {
+        return Paths.get(System.getProperty("rerun.file", DEFAULT_MANIFEST));
+    }
+
+    /**
+     * True when the run should execute only the scenarios listed in the manifest.
+     */
+    public static boolean isRerunMode() {
+        return Boolean.parseBoolean(System.getProperty("rerun", "false"));
+    }
+
+    /**
+     * Registers the start of an attempt and returns its number (1 = first run).
+     */
+    public int startAttempt(String scenarioId) {
+        return attempts.merge(scenarioId, 1, Integer::sum);
+    }
+
+    public int getAttempt(String scenarioId) {
+        return attempts.getOrDefault(scenarioId, 0);
+    }
+
+    /**
+     * True if a failed attempt of this scenario will be retried in this run.
+     */
+    public boolean hasRetriesLeft(String scenarioId) {
+        int attempt = getAttempt(scenarioId);
+        return attempt > 0 && attempt <= maxRetries;
+    }
+
+    /**
+     * Records the outcome of a finished attempt.
+     * @return The classification of the attempt
+     */
+    public Outcome recordResult(String scenarioId, boolean isFailed) {
+        if (isFailed) {
+            if (hasRetriesLeft(scenarioId)) {
+                logger.info("Scenario failed, retrying: {} (attempt {})", scenarioId, getAttempt(scenarioId));
+                return Outcome.RETRYING;
+            }
+            failed.add(scenarioId);
+            return getAttempt(scenarioId) > 1 ? Outcome.CONSISTENTLY_FAILING : Outcome.FAILED;
+        }
+        if (getAttempt(scenarioId) > 1) {
+            flaky.add(scenarioId);
+            return Outcome.FLAKY;
+        }
+        return Outcome.PASSED;
+    }
+
+    public Set<String> getFailed() {
+        return Collections.unmodifiableSet(failed);
+    }
+
+    public Set<String> getFlaky() {
+        return Collections.unmodifiableSet(flaky);
+    }
+
+    /**
+     * Writes failed scenarios in Cucumber rerun format. An empty manifest is written
+     * when everything passed, so a following rerun executes nothing.
+     */
+    public synchronized void save() {
+        Map<String, Set<String>> linesByFeature = new TreeMap<>();
+        for (String id : failed) {
+            String pickleId = id.replaceFirst("\\[row \\d+]$", "");
+            int separator = pickleId.lastIndexOf(':');
+            linesByFeature.computeIfAbsent(pickleId.substring(0, separator), k -> new HashSet<>())
+                    .add(pickleId.substring(separator + 1));
+        }
+
+        String content = linesByFeature.entrySet().stream()
+                .map(e -> e.getKey() + ":" + e.getValue().stream()
+                        .sorted(Comparator.comparingInt(Integer::parseInt))
+                        .collect(Collectors.joining(":")))
+                .collect(Collectors.joining(System.lineSeparator()));
+
+        try {
+            if (manifestPath.getParent() != null) {
+                Files.createDirectories(manifestPath.getParent());
+            }
+            Files.writeString(manifestPath, content);
+            logger.info("Rerun manifest written with {} failed scenarios: {}", failed.size(), manifestPath);
+        } catch (IOException e) {
+            logger.warn("Could not write rerun manifest {}: {}", manifestPath, e.getMessage());
+        }
+    }
+
+    /**
+     * Classification of a finished scenario attempt.
+     */
+    public enum Outcome {
+        PASSED, FAILED, RETRYING, FLAKY, CONSISTENTLY_FAILING
+    }
+}
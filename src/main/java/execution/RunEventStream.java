@@ -0,0 +1,203 @@
+package execution;
+
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.*;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Cucumber plugin that writes the run as NDJSON: one compact JSON line per test case and
+ * test step event, with thread, timestamp and status. Machine-readable and safe in parallel
+ * runs, for dashboards or tools that rebuild scenario timings.
+ *
+ * Event threads only enqueue the line; a single writer thread owns the file and writes
+ * in batches, so listeners never block on I/O.
+ *
+ * Register with: "execution.RunEventStream:target/run-events.ndjson"
+ *
+ * Example line:
+ * {"event":"TestCaseFinished","ts":1700000000000,"thread":"main","id":"features/login.feature:12",
+ *  "name":"Valid login","status":"PASSED","durationMs":5321}
+ */
+public class RunEventStream implements ConcurrentEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(RunEventStream.class);
+
+    private static final int MAX_ERROR_LENGTH = 500;
+    private static final String END_OF_STREAM = "";
+    private static final long WRITER_SHUTDOWN_TIMEOUT = 10000; // 10 seconds
+
+    // Step each thread is running, for utilities that record per-step data
+    private static final ThreadLocal<String> currentStep = new ThreadLocal<>();
+
+    private final File file;
+    private final BlockingQueue<String> queue = new LinkedBlockingQueue<>();
+    private volatile Thread writer;
+
+    public RunEventStream(File file) {
+        this.file = file;
+    }
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestRunStarted.class, this::onTestRunStarted);
+        publisher.registerHandlerFor(TestCaseStarted.class, this::onTestCaseStarted);
+        publisher.registerHandlerFor(TestStepStarted.class, this::onTestStepStarted);
+        publisher.registerHandlerFor(TestStepFinished.class, this::onTestStepFinished);
+        publisher.registerHandlerFor(TestCaseFinished.class, this::onTestCaseFinished);
+        publisher.registerHandlerFor(TestRunFinished.class, this::onTestRunFinished);
+    }
+
+    // ==================== EVENT HANDLERS ====================
+
+    private void onTestRunStarted(TestRunStarted event) {
+        startWriter();
+        emit(line("TestRunStarted", event));
+    }
+
+    private void onTestCaseStarted(TestCaseStarted event) {
+        emit(testCase(line("TestCaseStarted", event), event.getTestCase()));
+    }
+
+    private void onTestStepStarted(TestStepStarted event) {
+        if (event.getTestStep() instanceof PickleStepTestStep pickleStep) {
+            currentStep.set(pickleStep.getStep().getKeyword() + pickleStep.getStep().getText());
+        }
+        emit(testStep(testCase(line("TestStepStarted", event), event.getTestCase()), event.getTestStep()));
+    }
+
+    private void onTestStepFinished(TestStepFinished event) {
+        JSONObject json = testStep(testCase(line("TestStepFinished", event), event.getTestCase()), event.getTestStep());
+        emit(result(json, event.getResult()));
+    }
+
+    private void onTestCaseFinished(TestCaseFinished event) {
+        currentStep.remove();
+        emit(result(testCase(line("TestCaseFinished", event), event.getTestCase()), event.getResult()));
+    }
+
+    private void onTestRunFinished(TestRunFinished event) {
+        emit(result(line("TestRunFinished", event), event.getResult()));
+        stopWriter();
+    }
+
+    /**
+     * The Gherkin step running on this thread (keyword and text), or null outside steps
+     * and when the plugin is not registered.
+     */
+    public static String currentStep() {
+        return currentStep.get();
+    }
+
+    // ==================== LINE BUILDING ====================
+
+    private static JSONObject line(String type, Event event) {
+        JSONObject json = new JSONObject();
+        json.put("event", type);
+        json.put("ts", event.getInstant().toEpochMilli());
+        json.put("thread", Thread.currentThread().getName());
+        return json;
+    }
+
+    private static JSONObject testCase(JSONObject json, TestCase testCase) {
+        json.put("id", ExcelRowPickle.currentScenarioId(
+                ScenarioTimingStore.scenarioId(testCase.getUri(), testCase.getLocation().getLine())));
+        json.put("testCaseId", testCase.getId().toString());
+        json.put("name", testCase.getName());
+        return json;
+    }
+
+    private static JSONObject testStep(JSONObject json, TestStep step) {
+        if (step instanceof PickleStepTestStep pickleStep) {
+            json.put("step", pickleStep.getStep().getKeyword() + pickleStep.getStep().getText());
+            json.put("line", pickleStep.getStep().getLine());
+        } else if (step instanceof HookTestStep hookStep) {
+            json.put("hook", hookStep.getHookType().name());
+            json.put("location", step.getCodeLocation());
+        }
+        return json;
+    }
+
+    private static JSONObject result(JSONObject json, Result result) {
+        json.put("status", result.getStatus().name());
+        json.put("durationMs", result.getDuration().toMillis());
+        if (result.getError() != null) {
+            String error = String.valueOf(result.getError().getMessage()).trim();
+            json.put("error", error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) + "..." : error);
+        }
+        return json;
+    }
+
+    // ==================== WRITER ====================
+
+    private void emit(JSONObject json) {
+        if (writer != null) {
+            queue.offer(json.toString());
+        }
+    }
+
+    private synchronized void startWriter() {
+        if (writer != null) {
+            return;
+        }
+        writer = new Thread(this::drain, "run-event-stream");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    private synchronized void stopWriter() {
+        Thread current = writer;
+        if (current == null) {
+            return;
+        }
+        queue.offer(END_OF_STREAM);
+        try {
+            current.join(WRITER_SHUTDOWN_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Single writer: takes lines as they arrive and flushes once the queue is empty.
+     */
+    private void drain() {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        try (Writer out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            List<String> batch = new ArrayList<>();
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch);
+                for (String line : batch) {
+                    if (line.isEmpty()) { // END_OF_STREAM, JSON lines are never empty
+                        out.flush();
+                        return;
+                    }
+                    out.write(line);
+                    out.write('\n');
+                }
+                batch.clear();
+                out.flush();
+            }
+        } catch (IOException e) {
+            writer = null; // stop queueing lines nobody will write
+            logger.error("Run event stream {} failed: {}", file, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
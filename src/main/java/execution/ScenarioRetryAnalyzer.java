@@ -0,0 +1,27 @@
+package execution;
+
+import io.cucumber.testng.Pickle;
+import io.cucumber.testng.PickleWrapper;
+import org.testng.IRetryAnalyzer;
+import org.testng.ITestResult;
+
+/**
+ * Retries failed Cucumber scenarios in the same run (-Dretry.count=N).
+ * Attempts are counted by {@link RerunManifest}, so the hooks and the
+ * analyzer agree on whether a failure is final.
+ */
+public class ScenarioRetryAnalyzer implements IRetryAnalyzer {
+
+    @Override
+    public boolean retry(ITestResult result) {
+        Object[] parameters = result.getParameters();
+        if (parameters.length == 0 || !(parameters[0] instanceof PickleWrapper pickleWrapper)) {
+            return false;
+        }
+        Pickle pickle = pickleWrapper.getPickle();
+        String scenarioId = pickleWrapper instanceof ExcelRowPickle excelRow
+                ? excelRow.getScenarioId()
+                : ScenarioTimingStore.scenarioId(pickle.getUri(), pickle.getLine());
+        return RerunManifest.getInstance().hasRetriesLeft(scenarioId);
+    }
+}
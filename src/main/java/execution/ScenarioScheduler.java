@@ -0,0 +1,130 @@
+package execution;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Orders and shards scenarios using historical durations from {@link ScenarioTimingStore}.
+ * - Within a run, scenarios are ordered longest-first so a long flow never starts last.
+ * - Across shards (-Dshard.total=N -Dshard.index=0..N-1), scenarios are assigned greedily
+ *   to the shard with the least predicted time, instead of by count.
+ * The resulting plan is kept so the predicted makespan can be compared with the actual one.
+ */
+public class ScenarioScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScenarioScheduler.class);
+
+    private static volatile Plan lastPlan;
+
+    private final ScenarioTimingStore store;
+    private final int shardIndex;
+    private final int shardTotal;
+    private final int workers;
+
+    public ScenarioScheduler(ScenarioTimingStore store, int shardIndex, int shardTotal, int workers) {
+        if (shardTotal < 1 || shardIndex < 0 || shardIndex >= shardTotal) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid shard: index=%d, total=%d", shardIndex, shardTotal));
+        }
+        this.store = store;
+        this.shardIndex = shardIndex;
+        this.shardTotal = shardTotal;
+        this.workers = Math.max(1, workers);
+    }
+
+    /**
+     * Creates a scheduler from -Dshard.index, -Dshard.total and -Dworkers (defaults: 0, 1, 1).
+     * With -Dworkers=auto the prediction uses the adaptive controller's starting count.
+     */
+    public static ScenarioScheduler fromSystemProperties() {
+        AdaptiveConcurrency adaptive = AdaptiveConcurrency.getInstance();
+        return new ScenarioScheduler(ScenarioTimingStore.getInstance(),
+                Integer.getInteger("shard.index", 0),
+                Integer.getInteger("shard.total", 1),
+                adaptive != null ? adaptive.getLimit() : Integer.getInteger("workers", 1));
+    }
+
+    /**
+     * Returns the plan computed by the last call to {@link #schedule}, or null.
+     */
+    public static Plan getLastPlan() {
+        return lastPlan;
+    }
+
+    /**
+     * Selects this shard's scenarios and orders them longest-first.
+     * @param items All scenarios of the run, in file order
+     * @param idOf  Maps an item to its id (see {@link ScenarioTimingStore#scenarioId})
+     * @return The items to execute on this shard, longest predicted first
+     */
+    public <T> List<T> schedule(List<T> items, Function<T, String> idOf) {
+        List<T> ordered = new ArrayList<>(items);
+        Map<T, Long> predicted = new IdentityHashMap<>();
+        int unknown = 0;
+        for (T item : ordered) {
+            String id = idOf.apply(item);
+            predicted.put(item, store.predict(id));
+            if (!store.isKnown(id)) {
+                unknown++;
+            }
+        }
+
+        // Stable sort keeps file order for equal predictions (e.g. all unknown on first run)
+        ordered.sort(Comparator.comparingLong((T item) -> predicted.get(item)).reversed());
+
+        // Greedy longest-processing-time assignment across shards
+        long[] shardLoad = new long[shardTotal];
+        List<T> selected = new ArrayList<>();
+        for (T item : ordered) {
+            int target = indexOfMin(shardLoad);
+            shardLoad[target] += predicted.get(item);
+            if (target == shardIndex) {
+                selected.add(item);
+            }
+        }
+
+        List<Long> selectedDurations = selected.stream().map(predicted::get).toList();
+        Plan plan = new Plan(selected.size(), items.size(), unknown,
+                predictMakespan(selectedDurations, workers),
+                Arrays.stream(shardLoad).max().orElse(0));
+        lastPlan = plan;
+
+        logger.info("Scheduled {}/{} scenarios on shard {}/{} ({} without history), predicted makespan {}ms",
+                plan.scheduled(), plan.total(), shardIndex + 1, shardTotal, unknown, plan.predictedMakespanMs());
+        return selected;
+    }
+
+    /**
+     * Predicts the makespan of running the durations (already longest-first)
+     * on the given number of workers, each worker taking the next scenario when free.
+     */
+    public static long predictMakespan(List<Long> durations, int workers) {
+        long[] load = new long[Math.max(1, workers)];
+        for (long duration : durations) {
+            load[indexOfMin(load)] += duration;
+        }
+        return Arrays.stream(load).max().orElse(0);
+    }
+
+    private static int indexOfMin(long[] values) {
+        int min = 0;
+        for (int i = 1; i < values.length; i++) {
+            if (values[i] < values[min]) {
+                min = i;
+            }
+        }
+        return min;
+    }
+
+    /**
+     * Summary of a scheduling decision.
+     * @param predictedMakespanMs    Predicted wall time of this shard
+     * @param predictedSlowestShardMs Predicted wall time of the slowest shard of the whole run
+     */
+    public record Plan(int scheduled, int total, int unknown,
+                       long predictedMakespanMs, long predictedSlowestShardMs) {
+    }
+}
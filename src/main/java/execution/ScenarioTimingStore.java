@@ -0,0 +1,147 @@
+package execution;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local store of historical scenario durations.
+ * Durations are kept as a moving average per scenario so a single slow run
+ * does not dominate the prediction. The store survives "mvn clean" because it
+ * lives outside target/ (override with -Dtiming.store=path).
+ */
+public class ScenarioTimingStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScenarioTimingStore.class);
+
+    private static final String DEFAULT_STORE = ".test-history/scenario-timings.properties";
+    private static final long DEFAULT_UNKNOWN_MS = 30000; // 30 seconds
+    private static final double SMOOTHING = 0.5; // weight of the latest run
+
+    private static volatile ScenarioTimingStore instance;
+
+    private final Path storePath;
+    private final Map<String, Long> durations = new ConcurrentHashMap<>();
+
+    private ScenarioTimingStore(Path storePath) {
+        this.storePath = storePath;
+        load();
+    }
+
+    // Thread-safe singleton
+    public static ScenarioTimingStore getInstance() {
+        if (instance == null) {
+            synchronized (ScenarioTimingStore.class) {
+                if (instance == null) {
+                    instance = new ScenarioTimingStore(Paths.get(System.getProperty("timing.store", DEFAULT_STORE)));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Builds a stable scenario id from the feature URI and the pickle line.
+     * For Scenario Outlines the line is the Examples row, so every row is timed separately.
+     * Example: "src/test/resources/features/DemoBlaze/cart.feature:14"
+     */
+    public static String scenarioId(URI featureUri, int line) {
+        String path = "file".equalsIgnoreCase(featureUri.getScheme())
+                ? Paths.get(featureUri).toString()
+                : featureUri.getSchemeSpecificPart();
+        String root = System.getProperty("user.dir") + java.io.File.separator;
+        if (path.startsWith(root)) {
+            path = path.substring(root.length());
+        }
+        return path.replace('\\', '/') + ":" + line;
+    }
+
+    /**
+     * Returns the recorded duration, or empty if the scenario has never run.
+     */
+    public OptionalLong getDuration(String scenarioId) {
+        Long value = durations.get(scenarioId);
+        return value != null ? OptionalLong.of(value) : OptionalLong.empty();
+    }
+
+    /**
+     * Predicts the duration of a scenario. Unknown scenarios fall back to the
+     * median of all known durations, or to a fixed default when the store is empty.
+     */
+    public long predict(String scenarioId) {
+        return getDuration(scenarioId).orElseGet(this::fallbackDuration);
+    }
+
+    public boolean isKnown(String scenarioId) {
+        return durations.containsKey(scenarioId);
+    }
+
+    /**
+     * Records a new observation, blending it with the previous average.
+     */
+    public void record(String scenarioId, long durationMs) {
+        durations.merge(scenarioId, durationMs,
+                (previous, latest) -> Math.round(previous * (1 - SMOOTHING) + latest * SMOOTHING));
+        logger.debug("Recorded duration for {}: {}ms", scenarioId, durationMs);
+    }
+
+    /**
+     * Writes the store to disk. Written to a temp file first so a killed run
+     * never leaves a half-written store behind.
+     */
+    public synchronized void save() {
+        Properties props = new Properties();
+        durations.forEach((id, ms) -> props.setProperty(id, String.valueOf(ms)));
+
+        try {
+            if (storePath.getParent() != null) {
+                Files.createDirectories(storePath.getParent());
+            }
+            Path temp = storePath.resolveSibling(storePath.getFileName() + ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                props.store(out, "Scenario durations in milliseconds (moving average)");
+            }
+            Files.move(temp, storePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("Saved {} scenario timings to {}", durations.size(), storePath);
+        } catch (IOException e) {
+            logger.warn("Could not save scenario timings to {}: {}", storePath, e.getMessage());
+        }
+    }
+
+    private void load() {
+        if (!Files.exists(storePath)) {
+            logger.debug("No timing store found at {}, starting empty", storePath);
+            return;
+        }
+
+        Properties props = new Properties();
+        try (InputStream in = Files.newInputStream(storePath)) {
+            props.load(in);
+            for (String id : props.stringPropertyNames()) {
+                try {
+                    durations.put(id, Long.parseLong(props.getProperty(id).trim()));
+                } catch (NumberFormatException e) {
+                    logger.warn("Ignoring invalid timing for {}: {}", id, props.getProperty(id));
+                }
+            }
+            logger.debug("Loaded {} scenario timings from {}", durations.size(), storePath);
+        } catch (IOException e) {
+            logger.warn("Could not read timing store {}: {}", storePath, e.getMessage());
+        }
+    }
+
+    private long fallbackDuration() {
+        if (durations.isEmpty()) {
+            return Long.getLong("timing.default", DEFAULT_UNKNOWN_MS);
+        }
+        long[] sorted = durations.values().stream().mapToLong(Long::longValue).sorted().toArray();
+        return sorted[sorted.length / 2];
+    }
+}
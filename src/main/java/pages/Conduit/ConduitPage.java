@@ -1,5 +1,6 @@
 package pages.Conduit;
 
+import utilze.PageTimer;
 import utilze.playwright;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,7 +11,13 @@ import org.slf4j.LoggerFactory;
  */
 public class ConduitPage {
     private static final Logger logger = LoggerFactory.getLogger(ConduitPage.class);
-    playwright pm = new playwright();
+    private final playwright pm;
+    private final PageTimer timer;
+
+    public ConduitPage(playwright pm, PageTimer timer) {
+        this.pm = pm;
+        this.timer = timer;
+    }
 
     // Navigation Methods
     public void navigateToHome() {
@@ -115,6 +122,14 @@ public class ConduitPage {
         return pm.getTextSafe(ConduitPaths.FIRST_ARTICLE_TITLE);
     }
 
+    /**
+     * Milliseconds from the last click or navigation until the feed shows the given number of articles.
+     */
+    public double measureFeedRender(int articles) {
+        logger.info("Measuring time until {} articles are rendered in the feed", articles);
+        return timer.measureVisible(ConduitPaths.ARTICLE_PREVIEW, articles);
+    }
+
     public void clickFirstArticle() {
         logger.info("Clicking first article in feed");
         pm.click(ConduitPaths.FIRST_ARTICLE_TITLE);
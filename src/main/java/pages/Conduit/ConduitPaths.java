@@ -37,6 +37,7 @@ public class ConduitPaths {
 
     // Home / Global Feed
     public static final String GLOBAL_FEED_TAB = "//a[contains(text(), 'Global Feed')]";
+    public static final String ARTICLE_PREVIEW = "//div[@class='article-preview']";
     // First article in the list
     public static final String FIRST_ARTICLE_LINK = "(//div[@class='article-preview'])[1]//a[@class='preview-link']";
     public static final String FIRST_ARTICLE_TITLE = "(//div[@class='article-preview'])[1]//h1";
@@ -5,14 +5,20 @@ import com.microsoft.playwright.options.LoadState;
 import config.Settings;
 import utilze.playwright;
 
+import java.net.URI;
+
 public class cart {
     private static final Logger logger = LoggerFactory.getLogger(cart.class);
-    playwright pm = new playwright();
+    private final playwright pm;
 
     private static final String PRODUCT_NAME_KEY = "productName";
-    private static final String CART_PAGE_URL = "https://www.demoblaze.com/cart.html";
+    private static final String CART_PAGE = "cart.html";
     private String lastDialogMessage = "";
 
+    public cart(playwright pm) {
+        this.pm = pm;
+    }
+
     public void IsHomepageAppeared() {
         pm.getPage().waitForLoadState(LoadState.DOMCONTENTLOADED);
         pm.assertPageHasURL(Settings.Url);
@@ -86,7 +92,8 @@ public class cart {
     }
 
     public void verifyCartPage() {
-        pm.assertPageHasURL(CART_PAGE_URL);
+        // Relative to the environment's shop, so the local fixture copy works as well
+        pm.assertPageHasURL(URI.create(Settings.Url).resolve(CART_PAGE).toString());
         pm.waitForElementVisibility(cartpagePaths.CART_ITEMS_ROWS);
     }
 
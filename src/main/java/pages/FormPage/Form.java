@@ -14,8 +14,8 @@ public class Form extends playwright {
     private static final Logger logger = LoggerFactory.getLogger(Form.class);
     private final FormPagePaths paths;
 
-    public Form() {
-        this.paths = new FormPagePaths();
+    public Form(FormPagePaths paths) {
+        this.paths = paths;
     }
 
     /**
@@ -29,6 +29,7 @@ public class Form extends playwright {
         click(paths.exactText("button","Sign In"));
 
         waitForNetworkIdle();
+        capturePerformance("sign in");
         logger.info("Sign in completed successfully");
     }
 
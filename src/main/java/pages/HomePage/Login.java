@@ -5,15 +5,17 @@ import pages.FormPage.Form;
 import pages.FormPage.FormPagePaths;
 import utilze.playwright;
 
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.util.Properties;
-
 public class Login extends playwright {
-    Properties prop = new Properties();
-    Form form = new Form();
-    LoginPath loginPath = new LoginPath();
-    FormPagePaths FormPagepaths = new FormPagePaths();
+    private final Form form;
+    private final LoginPath loginPath;
+    private final FormPagePaths FormPagepaths;
+
+    // Helpers are shared within the scenario (see ScenarioContext)
+    public Login(Form form, LoginPath loginPath, FormPagePaths FormPagepaths) {
+        this.form = form;
+        this.loginPath = loginPath;
+        this.FormPagepaths = FormPagepaths;
+    }
 
     public void validateUserIsOnHomePage() {
         try {
@@ -0,0 +1,424 @@
+package utilze;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Excel (.xlsx) test data, read with POI's streaming SAX reader instead of loading whole workbooks.
+ * The first row of a sheet is the header; every following row is a data row keyed by header.
+ *
+ * Parsed sheets are cached across scenarios (until the file changes). Sheets larger than
+ * excel.cache.max_cells are not kept in memory: only their row count is cached, and each
+ * thread reads their rows through a forward-only cursor that parses the sheet once, so
+ * memory stays flat regardless of sheet size.
+ *
+ * Scenario rows: a scenario tagged @excel:Data/login.xlsx:Sheet1 runs once per data row.
+ * The row being run is bound to the thread; step definitions replace "<Column>"
+ * placeholders with {@link #resolve(String)}.
+ */
+public class ExcelData {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExcelData.class);
+
+    private static final int DEFAULT_CACHE_MAX_CELLS = 1_000_000;
+    private static final Pattern PLACEHOLDER = Pattern.compile("<([^<>]+)>");
+
+    private static final Map<String, Sheet> cache = new ConcurrentHashMap<>();
+    private static final ThreadLocal<Map<String, String>> currentRow = new ThreadLocal<>();
+
+    // Streaming cursors on uncached sheets, per thread and sheet
+    private static final int CURSOR_BUFFER = 64; // rows read ahead
+    private static final ThreadLocal<Map<String, Cursor>> cursors = ThreadLocal.withInitial(HashMap::new);
+    private static final Set<Cursor> openCursors = ConcurrentHashMap.newKeySet();
+
+    /**
+     * A sheet reference as written in tags and steps: "Data/login.xlsx:Sheet1" (sheet optional).
+     */
+    public record Source(String file, String sheet) {
+
+        public static Source parse(String source) {
+            int separator = source.toLowerCase().indexOf(".xlsx:");
+            return separator < 0 ? new Source(source, null)
+                    : new Source(source.substring(0, separator + 5), source.substring(separator + 6));
+        }
+    }
+
+    private ExcelData() {
+    }
+
+    // ==================== SHEET ACCESS ====================
+
+    /**
+     * Number of data rows (excluding the header) in a sheet.
+     * @param sheetName Sheet name, or null for the first sheet
+     */
+    public static int rowCount(String file, String sheetName) {
+        return sheet(file, sheetName).count();
+    }
+
+    /**
+     * Returns one data row (0 = first row after the header) as column -> value.
+     */
+    public static Map<String, String> row(String file, String sheetName, int index) {
+        Sheet sheet = sheet(file, sheetName);
+        if (index < 0 || index >= sheet.count()) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "Row %d not in sheet '%s' of %s (%d data rows)", index, sheet.name(), file, sheet.count()));
+        }
+        if (sheet.rows() != null) {
+            return toMap(sheet.header(), sheet.rows().get(index));
+        }
+        return streamedRow(file, sheetName, sheet, index);
+    }
+
+    /**
+     * Reads a row of an uncached sheet through the thread's cursor on that sheet. Rows of an
+     * outline are requested in ascending order per thread, so the cursor only moves forward;
+     * it is restarted when an earlier row is requested or the file changed.
+     */
+    private static Map<String, String> streamedRow(String file, String sheetName, Sheet sheet, int index) {
+        String key = Paths.get(file).toAbsolutePath() + "#" + (sheetName == null ? "" : sheetName);
+        Map<String, Cursor> threadCursors = cursors.get();
+        Cursor cursor = threadCursors.get(key);
+        if (cursor == null || cursor.closed || cursor.modified != sheet.modified() || index < cursor.next) {
+            if (cursor != null) {
+                cursor.close();
+            }
+            cursor = new Cursor(Paths.get(file), sheetName, sheet.modified());
+            threadCursors.put(key, cursor);
+        }
+        String[] values = cursor.advanceTo(index);
+        if (index == sheet.count() - 1) {
+            // Last row: nothing left to read
+            cursor.close();
+            threadCursors.remove(key);
+        }
+        return toMap(cursor.header, values);
+    }
+
+    /**
+     * Streams every data row of a sheet, e.g. to feed a data table.
+     * Cached sheets are served from memory, uncached ones are read row by row.
+     */
+    public static void forEachRow(String file, String sheetName, Consumer<Map<String, String>> action) {
+        Sheet sheet = sheet(file, sheetName);
+        if (sheet.rows() != null) {
+            sheet.rows().forEach(values -> action.accept(toMap(sheet.header(), values)));
+            return;
+        }
+        parse(Paths.get(file), sheetName, new RowCollector(1, Integer.MAX_VALUE, 0) {
+            @Override
+            void accept(String[] values) {
+                action.accept(toMap(header, values));
+            }
+        });
+    }
+
+    private static Sheet sheet(String file, String sheetName) {
+        Path path = Paths.get(file).toAbsolutePath();
+        long modified;
+        try {
+            modified = Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Excel file does not exist: " + file, e);
+        }
+        String key = path + "#" + (sheetName == null ? "" : sheetName);
+        Sheet cached = cache.get(key);
+        if (cached != null && cached.modified() == modified) {
+            return cached;
+        }
+
+        long start = System.currentTimeMillis();
+        RowCollector collector = new RowCollector(1, Integer.MAX_VALUE, cacheMaxCells());
+        String name = parse(path, sheetName, collector);
+        Sheet sheet = new Sheet(name, modified, collector.header, collector.rows, collector.count);
+        cache.put(key, sheet);
+        logger.debug("Read sheet '{}' of {}: {} rows in {}ms{}", name, file, sheet.count(),
+                System.currentTimeMillis() - start, sheet.rows() == null ? " (too large to cache, streaming)" : "");
+        return sheet;
+    }
+
+    /**
+     * Stops all open cursors (e.g. at the end of the run), releasing their files.
+     */
+    public static void closeCursors() {
+        openCursors.forEach(Cursor::close);
+    }
+
+    private static int cacheMaxCells() {
+        return Integer.getInteger("excel.cache.max_cells", DEFAULT_CACHE_MAX_CELLS);
+    }
+
+    // ==================== CURRENT SCENARIO ROW ====================
+
+    /**
+     * Binds a data row to the current thread for the scenario being run.
+     */
+    public static void bind(Map<String, String> row) {
+        currentRow.set(row);
+    }
+
+    public static void unbind() {
+        currentRow.remove();
+    }
+
+    /**
+     * Replaces "<Column>" placeholders with the values of the bound row.
+     * Returns the text unchanged when no row is bound (regular Scenario Outline rows).
+     */
+    public static String resolve(String text) {
+        Map<String, String> row = currentRow.get();
+        if (row == null || text == null) {
+            return text;
+        }
+        Matcher matcher = PLACEHOLDER.matcher(text);
+        StringBuilder resolved = new StringBuilder();
+        while (matcher.find()) {
+            String column = matcher.group(1);
+            if (!row.containsKey(column)) {
+                throw new IllegalArgumentException("Column not found in Excel row: " + column
+                        + " (available: " + row.keySet() + ")");
+            }
+            matcher.appendReplacement(resolved, Matcher.quoteReplacement(row.get(column)));
+        }
+        matcher.appendTail(resolved);
+        return resolved.toString();
+    }
+
+    // ==================== STREAMING PARSER ====================
+
+    /**
+     * Parses a sheet with the SAX reader and returns its name.
+     */
+    private static String parse(Path path, String sheetName, RowCollector collector) {
+        try (OPCPackage pkg = OPCPackage.open(path.toFile(), PackageAccess.READ)) {
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            XSSFReader reader = new XSSFReader(pkg);
+            StylesTable styles = reader.getStylesTable();
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+
+            while (sheets.hasNext()) {
+                try (InputStream in = sheets.next()) {
+                    String name = sheets.getSheetName();
+                    if (sheetName != null && !sheetName.equals(name)) {
+                        continue;
+                    }
+                    XMLReader parser = XMLHelper.newXMLReader();
+                    parser.setContentHandler(new XSSFSheetXMLHandler(
+                            styles, null, strings, collector, new DataFormatter(), false));
+                    try {
+                        parser.parse(new InputSource(in));
+                    } catch (StopParsing e) {
+                        // All requested rows read
+                    }
+                    return name;
+                }
+            }
+        } catch (IOException | OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new RuntimeException("Failed to read Excel file: " + path + " (" + e.getMessage() + ")", e);
+        }
+        throw new IllegalArgumentException("Sheet '" + sheetName + "' not found in " + path);
+    }
+
+    private static Map<String, String> toMap(String[] header, String[] values) {
+        Map<String, String> row = new LinkedHashMap<>();
+        for (int i = 0; i < header.length; i++) {
+            row.put(header[i], i < values.length && values[i] != null ? values[i] : "");
+        }
+        return row;
+    }
+
+    /**
+     * Collects the header and the data rows in [first, last] (1-based data row numbers).
+     * Rows are kept until maxCells is exceeded; after that only the count continues.
+     */
+    private static class RowCollector implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final int first;
+        private final int last;
+        private final int maxCells;
+
+        String[] header = new String[0];
+        List<String[]> rows = new ArrayList<>();
+        int count;
+
+        private final List<String> values = new ArrayList<>();
+        private int dataRow = -1;
+        private long cells;
+
+        RowCollector(int first, int last, int maxCells) {
+            this.first = first;
+            this.last = last;
+            this.maxCells = maxCells;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            values.clear();
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = cellReference != null ? new CellReference(cellReference).getCol() : values.size();
+            while (values.size() < column) {
+                values.add("");
+            }
+            values.add(formattedValue);
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (dataRow < 0) {
+                header = values.toArray(new String[0]);
+                dataRow = 0;
+                return;
+            }
+            if (values.stream().allMatch(String::isBlank)) {
+                return; // blank rows are not data
+            }
+            dataRow++;
+            count = dataRow;
+            if (dataRow >= first && dataRow <= last) {
+                accept(values.toArray(new String[0]));
+            }
+            if (dataRow >= last) {
+                throw new StopParsing();
+            }
+        }
+
+        void accept(String[] row) {
+            if (rows == null) {
+                return;
+            }
+            cells += row.length;
+            if (cells > maxCells) {
+                rows = null; // too large to cache, keep counting only
+                return;
+            }
+            rows.add(row);
+        }
+    }
+
+    /**
+     * A forward-only position in an uncached sheet. The SAX parse runs on its own thread and
+     * hands rows over through a small buffer, so each row is parsed once however the rows are
+     * requested; the parse pauses while the buffer is full.
+     */
+    private static class Cursor {
+        private static final Object END = new Object();
+
+        final long modified;
+        volatile String[] header = new String[0];
+        volatile boolean closed;
+        int next;
+
+        private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(CURSOR_BUFFER);
+        private final Thread reader;
+
+        Cursor(Path path, String sheetName, long modified) {
+            this.modified = modified;
+            reader = new Thread(() -> read(path, sheetName), "excel-cursor-" + path.getFileName());
+            reader.setDaemon(true);
+            openCursors.add(this);
+            reader.start();
+        }
+
+        private void read(Path path, String sheetName) {
+            try {
+                parse(path, sheetName, new RowCollector(1, Integer.MAX_VALUE, 0) {
+                    @Override
+                    void accept(String[] values) {
+                        Cursor.this.header = header;
+                        put(values);
+                    }
+                });
+                put(END);
+            } catch (StopParsing e) {
+                // Closed
+            } catch (RuntimeException e) {
+                put(e);
+            }
+        }
+
+        private void put(Object item) {
+            try {
+                queue.put(item);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt(); // END is not put either
+                throw new StopParsing();
+            }
+        }
+
+        /**
+         * Skips to the data row and returns it.
+         */
+        String[] advanceTo(int index) {
+            String[] values = null;
+            while (next <= index) {
+                Object item;
+                try {
+                    item = queue.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while reading Excel row " + index, e);
+                }
+                if (item instanceof RuntimeException e) {
+                    throw e;
+                }
+                if (item == END) {
+                    throw new IndexOutOfBoundsException("Row " + index + " past the end of the sheet");
+                }
+                values = (String[]) item;
+                next++;
+            }
+            return values;
+        }
+
+        void close() {
+            closed = true;
+            reader.interrupt();
+            openCursors.remove(this);
+        }
+    }
+
+    /**
+     * Ends a SAX parse early once the requested rows are read.
+     */
+    private static class StopParsing extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        StopParsing() {
+            super(null, null, false, false);
+        }
+    }
+
+    private record Sheet(String name, long modified, String[] header, List<String[]> rows, int count) {
+    }
+}
@@ -0,0 +1,278 @@
+package utilze;
+
+import Initialization.FrameWorkInitialization;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.CDPSession;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.PlaywrightException;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tracks JS heap, DOM node and event listener counts of a scenario at every step boundary,
+ * read with one CDP Performance.getMetrics call (about a millisecond, so it can stay on in
+ * nightly runs). A metric that never decreases over the
+ * scenario and grows by more than its threshold is flagged as a likely leak: the SPA keeps
+ * what earlier steps created. Chromium only; on Firefox and WebKit nothing is sampled.
+ *
+ * The curve starts at the first real document: while the page is still about:blank (the
+ * landing navigation is deferred to the first step) nothing is sampled. JSHeapUsedSize
+ * includes garbage not yet collected, so by default the heap is recorded but left out of the
+ * monotonic check. memory_collect_garbage=true forces a GC (HeapProfiler.collectGarbage) before
+ * each sample and includes the heap; that costs tens of ms per step on a real SPA and changes
+ * the app's GC timing, so it is meant for investigating a suspected leak.
+ *
+ * Settings (BrowserConfig.properties, -D overrides):
+ * - memory_tracking:            sample at step boundaries (true/false)
+ * - memory_growth_heap_mb:      flag a monotonic JS heap growth above this many MB
+ * - memory_growth_nodes:        flag a monotonic DOM node growth above this count
+ * - memory_growth_listeners:    flag a monotonic event listener growth above this count
+ * - memory_growth_min_samples:  samples needed before growth counts as monotonic
+ * - memory_collect_garbage:     force a GC before each sample and check the heap (slow, opt-in)
+ *
+ * Scenario-scoped: obtain it with ScenarioContext.get(MemoryGrowth.class).
+ */
+public class MemoryGrowth {
+
+    private static final Logger logger = LoggerFactory.getLogger(MemoryGrowth.class);
+
+    private static final int INITIAL_CAPACITY = 32;
+
+    private static final AtomicBoolean unsupportedWarned = new AtomicBoolean();
+    private static final AtomicInteger sampledScenarios = new AtomicInteger();
+    private static final List<String> flaggedScenarios = Collections.synchronizedList(new ArrayList<>());
+
+    private final FrameWorkInitialization fm;
+    private final boolean enabled;
+    private final double heapThresholdMb;
+    private final long nodesThreshold;
+    private final long listenersThreshold;
+    private final int minSamples;
+    private final boolean collectGarbage;
+
+    private CDPSession session;
+    private Page sessionPage;
+    private boolean unsupported;
+
+    // Curves as primitive columns: one entry per sample
+    private final List<String> steps = new ArrayList<>();
+    private long[] heapBytes = new long[INITIAL_CAPACITY];
+    private long[] nodes = new long[INITIAL_CAPACITY];
+    private long[] listeners = new long[INITIAL_CAPACITY];
+
+    public MemoryGrowth(FrameWorkInitialization fm) {
+        this.fm = fm;
+        Properties prop = fm.getProperties();
+        this.enabled = Boolean.parseBoolean(setting(prop, "memory_tracking", "true"));
+        this.heapThresholdMb = Double.parseDouble(setting(prop, "memory_growth_heap_mb", "5"));
+        this.nodesThreshold = Long.parseLong(setting(prop, "memory_growth_nodes", "500"));
+        this.listenersThreshold = Long.parseLong(setting(prop, "memory_growth_listeners", "50"));
+        this.minSamples = Integer.parseInt(setting(prop, "memory_growth_min_samples", "4"));
+        this.collectGarbage = Boolean.parseBoolean(setting(prop, "memory_collect_garbage", "false"));
+    }
+
+    /**
+     * Samples the current page's heap, node and listener counts.
+     * Skipped while the page has no committed document yet (about:blank).
+     * @param step The step that just finished, or e.g. "start" before the first step
+     */
+    public void sample(String step) {
+        if (!enabled || unsupported) {
+            return;
+        }
+        Page page = fm.getCurrentPage();
+        BrowserContext context = fm.getContext();
+        if (page == null || context == null || page.isClosed() || !hasDocument(page)) {
+            return;
+        }
+        if (page != sessionPage && !openSession(context, page)) {
+            return;
+        }
+        try {
+            if (collectGarbage) {
+                session.send("HeapProfiler.collectGarbage");
+            }
+            JsonObject result = session.send("Performance.getMetrics");
+            Map<String, Double> metrics = new HashMap<>();
+            for (JsonElement element : result.getAsJsonArray("metrics")) {
+                JsonObject metric = element.getAsJsonObject();
+                metrics.put(metric.get("name").getAsString(), metric.get("value").getAsDouble());
+            }
+            add(step, metrics.getOrDefault("JSHeapUsedSize", 0.0).longValue(),
+                    metrics.getOrDefault("Nodes", 0.0).longValue(),
+                    metrics.getOrDefault("JSEventListeners", 0.0).longValue());
+        } catch (PlaywrightException e) {
+            logger.debug("Could not sample memory after {}: {}", step, e.getMessage());
+        }
+    }
+
+    /**
+     * False until the page committed a navigation: page.url() is local, no round trip.
+     */
+    private static boolean hasDocument(Page page) {
+        String url = page.url();
+        return url != null && !url.isEmpty() && !"about:blank".equals(url);
+    }
+
+    /**
+     * Attaches a CDP session to the page, replacing the one of a previous page (e.g. a popup).
+     * @return false when the browser does not support CDP
+     */
+    private boolean openSession(BrowserContext context, Page page) {
+        String browserName = context.browser() == null ? "unknown" : context.browser().browserType().name();
+        if (!"chromium".equals(browserName)) {
+            unsupported = true;
+            if (unsupportedWarned.compareAndSet(false, true)) {
+                logger.warn("Memory tracking skipped: CDP metrics are only available on Chromium, not {}", browserName);
+            }
+            return false;
+        }
+        detach();
+        try {
+            session = context.newCDPSession(page);
+            session.send("Performance.enable");
+            sessionPage = page;
+            return true;
+        } catch (PlaywrightException e) {
+            logger.debug("Could not open CDP session: {}", e.getMessage());
+            session = null;
+            return false;
+        }
+    }
+
+    private void add(String step, long heap, long nodeCount, long listenerCount) {
+        int index = steps.size();
+        if (index == heapBytes.length) {
+            heapBytes = Arrays.copyOf(heapBytes, index * 2);
+            nodes = Arrays.copyOf(nodes, index * 2);
+            listeners = Arrays.copyOf(listeners, index * 2);
+        }
+        steps.add(step);
+        heapBytes[index] = heap;
+        nodes[index] = nodeCount;
+        listeners[index] = listenerCount;
+    }
+
+    /**
+     * Closes the CDP session and adds the scenario to the run totals.
+     * @return the flagged growths, e.g. ["DOM nodes +1840 (412 -> 2252)"]; empty when none
+     */
+    public List<String> finish(String scenarioId) {
+        detach();
+        if (steps.size() < 2) {
+            return List.of();
+        }
+        sampledScenarios.incrementAndGet();
+        List<String> flagged = getFlaggedGrowth();
+        if (!flagged.isEmpty()) {
+            flaggedScenarios.add(scenarioId + " " + flagged);
+            logger.warn("Monotonic memory growth in {}: {}", scenarioId, flagged);
+        }
+        return flagged;
+    }
+
+    private void detach() {
+        if (session == null) {
+            return;
+        }
+        try {
+            session.detach();
+        } catch (PlaywrightException e) {
+            logger.debug("CDP session already closed: {}", e.getMessage());
+        }
+        session = null;
+        sessionPage = null;
+    }
+
+    // ==================== GROWTH ====================
+
+    /**
+     * Metrics that never decreased over at least memory_growth_min_samples samples and grew
+     * beyond their threshold. The heap counts only when sampled after a forced GC.
+     */
+    public List<String> getFlaggedGrowth() {
+        List<String> flagged = new ArrayList<>();
+        int count = steps.size();
+        if (count < minSamples) {
+            return flagged;
+        }
+        if (collectGarbage && isMonotonic(heapBytes, count) && heapBytes[count - 1] - heapBytes[0] > heapThresholdMb * 1024 * 1024) {
+            flagged.add(String.format("JS heap +%.1f MB (%.1f -> %.1f MB)", mb(heapBytes[count - 1] - heapBytes[0]),
+                    mb(heapBytes[0]), mb(heapBytes[count - 1])));
+        }
+        if (isMonotonic(nodes, count) && nodes[count - 1] - nodes[0] > nodesThreshold) {
+            flagged.add(String.format("DOM nodes +%d (%d -> %d)", nodes[count - 1] - nodes[0], nodes[0], nodes[count - 1]));
+        }
+        if (isMonotonic(listeners, count) && listeners[count - 1] - listeners[0] > listenersThreshold) {
+            flagged.add(String.format("listeners +%d (%d -> %d)", listeners[count - 1] - listeners[0],
+                    listeners[0], listeners[count - 1]));
+        }
+        return flagged;
+    }
+
+    private static boolean isMonotonic(long[] values, int count) {
+        for (int i = 1; i < count; i++) {
+            if (values[i] < values[i - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getSampleCount() {
+        return steps.size();
+    }
+
+    /**
+     * The growth curves, one entry per step boundary.
+     */
+    public String toJson() {
+        JSONArray curve = new JSONArray();
+        for (int i = 0; i < steps.size(); i++) {
+            curve.put(new JSONObject()
+                    .put("step", steps.get(i))
+                    .put("heapMb", Math.round(mb(heapBytes[i]) * 100) / 100.0)
+                    .put("nodes", nodes[i])
+                    .put("listeners", listeners[i]));
+        }
+        return new JSONObject()
+                .put("flagged", new JSONArray(getFlaggedGrowth()))
+                .put("samples", curve)
+                .toString(2);
+    }
+
+    // ==================== SUMMARY ====================
+
+    public static boolean hasSamples() {
+        return sampledScenarios.get() > 0;
+    }
+
+    /**
+     * Returns e.g. "2 of 14 scenarios grew monotonically"
+     */
+    public static String summary() {
+        return String.format("%d of %d scenarios grew monotonically", flaggedScenarios.size(), sampledScenarios.get());
+    }
+
+    public static List<String> getFlaggedScenarios() {
+        synchronized (flaggedScenarios) {
+            return new ArrayList<>(flaggedScenarios);
+        }
+    }
+
+    private static double mb(long bytes) {
+        return bytes / (1024.0 * 1024);
+    }
+
+    private static String setting(Properties prop, String key, String defaultValue) {
+        return System.getProperty(key, prop.getProperty(key, defaultValue)).trim();
+    }
+}
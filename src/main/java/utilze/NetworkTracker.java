@@ -0,0 +1,189 @@
+package utilze;
+
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.Request;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks in-flight requests of a Page to wait for network quiescence.
+ * Unlike LoadState.NETWORKIDLE (no request for 500ms, counting every request) it only counts
+ * relevant requests: filtered by resource type and a URL allow/deny list, so analytics
+ * beacons and long-polling do not keep the page "busy". The idle window is configurable.
+ *
+ * Settings (BrowserConfig.properties, -D overrides):
+ * - network_idle_window:         quiet time in ms before the network counts as idle
+ * - network_idle_timeout:        max wait in ms
+ * - network_idle_resource_types: resource types to count (document, xhr, fetch, ...)
+ * - network_idle_ignore_urls:    URL fragments never counted (deny list)
+ * - network_idle_track_urls:     if set, only URLs containing one of these are counted (allow list)
+ *
+ * Every wait estimates when NETWORKIDLE would have settled and adds the difference to a
+ * run-wide "time saved" total.
+ */
+public class NetworkTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(NetworkTracker.class);
+
+    private static final int NETWORKIDLE_WINDOW = 500; // Playwright's fixed NETWORKIDLE quiet time
+    private static final int POLL_INTERVAL = 25; // 25 milliseconds
+    private static final int DEFAULT_IDLE_WINDOW = 100; // 100 milliseconds
+    private static final int DEFAULT_TIMEOUT = 30000; // 30 seconds
+    private static final String DEFAULT_RESOURCE_TYPES = "document,xhr,fetch,script,stylesheet";
+
+    // One tracker per open page, removed when the page closes
+    private static final Map<Page, NetworkTracker> trackers = new ConcurrentHashMap<>();
+
+    private static final AtomicInteger waits = new AtomicInteger();
+    private static final AtomicInteger unsettledWaits = new AtomicInteger();
+    private static final AtomicLong waitedMs = new AtomicLong();
+    private static final AtomicLong savedMs = new AtomicLong();
+
+    private final Page page;
+    private final int idleWindow;
+    private final int timeout;
+    private final Set<String> resourceTypes;
+    private final List<String> ignoreUrls;
+    private final List<String> trackUrls;
+
+    // Playwright dispatches page events on the thread calling Playwright, so plain fields suffice
+    private final Set<Request> relevantInFlight = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<Request> allInFlight = Collections.newSetFromMap(new IdentityHashMap<>());
+    private long lastRelevantActivity = System.currentTimeMillis();
+    private long lastActivity = System.currentTimeMillis();
+
+    private NetworkTracker(Page page, Properties prop) {
+        this.page = page;
+        this.idleWindow = Integer.parseInt(setting(prop, "network_idle_window", String.valueOf(DEFAULT_IDLE_WINDOW)));
+        this.timeout = Integer.parseInt(setting(prop, "network_idle_timeout", String.valueOf(DEFAULT_TIMEOUT)));
+        this.resourceTypes = new HashSet<>(list(setting(prop, "network_idle_resource_types", DEFAULT_RESOURCE_TYPES)));
+        this.ignoreUrls = list(setting(prop, "network_idle_ignore_urls", ""));
+        this.trackUrls = list(setting(prop, "network_idle_track_urls", ""));
+
+        page.onRequest(this::onRequestStarted);
+        page.onRequestFinished(this::onRequestDone);
+        page.onRequestFailed(this::onRequestDone);
+        page.onClose(trackers::remove);
+    }
+
+    /**
+     * Returns the page's tracker, attaching one if the page has none yet.
+     * Attach right after creating the page, so no request is missed.
+     */
+    public static NetworkTracker attach(Page page, Properties prop) {
+        return trackers.computeIfAbsent(page, p -> new NetworkTracker(p, prop));
+    }
+
+    // ==================== REQUEST EVENTS ====================
+
+    private void onRequestStarted(Request request) {
+        long now = System.currentTimeMillis();
+        allInFlight.add(request);
+        lastActivity = now;
+        if (isRelevant(request)) {
+            relevantInFlight.add(request);
+            lastRelevantActivity = now;
+        }
+    }
+
+    private void onRequestDone(Request request) {
+        long now = System.currentTimeMillis();
+        if (allInFlight.remove(request)) {
+            lastActivity = now;
+        }
+        if (relevantInFlight.remove(request)) {
+            lastRelevantActivity = now;
+        }
+    }
+
+    private boolean isRelevant(Request request) {
+        if (!resourceTypes.contains(request.resourceType())) {
+            return false;
+        }
+        String url = request.url();
+        if (ignoreUrls.stream().anyMatch(url::contains)) {
+            return false;
+        }
+        return trackUrls.isEmpty() || trackUrls.stream().anyMatch(url::contains);
+    }
+
+    // ==================== WAITING ====================
+
+    /**
+     * Waits until no relevant request is in flight for the configured idle window.
+     */
+    public void waitForQuiescence() {
+        waitForQuiescence(idleWindow);
+    }
+
+    /**
+     * Waits until no relevant request is in flight for the given idle window.
+     * @param idleWindowMs Quiet time in ms before the network counts as idle
+     */
+    public void waitForQuiescence(int idleWindowMs) {
+        long start = System.currentTimeMillis();
+        long deadline = start + timeout;
+
+        while (true) {
+            long now = System.currentTimeMillis();
+            if (relevantInFlight.isEmpty() && now - lastRelevantActivity >= idleWindowMs) {
+                break;
+            }
+            if (now >= deadline) {
+                throw new RuntimeException(String.format(
+                        "Network not idle after %dms, %d requests in flight: %s",
+                        timeout, relevantInFlight.size(), pendingUrls()));
+            }
+            // Waiting through the page lets Playwright dispatch request events
+            page.waitForTimeout(POLL_INTERVAL);
+        }
+
+        long end = System.currentTimeMillis();
+        waits.incrementAndGet();
+        waitedMs.addAndGet(end - start);
+        if (allInFlight.isEmpty()) {
+            // NETWORKIDLE would settle 500ms after the last request of any kind
+            savedMs.addAndGet(Math.max(0, lastActivity + NETWORKIDLE_WINDOW - end));
+        } else {
+            // Ignored traffic still open: NETWORKIDLE would wait at least another 500ms
+            unsettledWaits.incrementAndGet();
+            savedMs.addAndGet(NETWORKIDLE_WINDOW);
+        }
+        logger.debug("Network idle after {}ms ({} ignored requests still open)", end - start, allInFlight.size());
+    }
+
+    private List<String> pendingUrls() {
+        return relevantInFlight.stream().map(Request::url).limit(5).toList();
+    }
+
+    // ==================== SUMMARY ====================
+
+    public static boolean hasWaits() {
+        return waits.get() > 0;
+    }
+
+    /**
+     * Returns the run's network wait totals, e.g.
+     * "12 waits, 1.4s total, ~4.8s saved vs NETWORKIDLE (3 would not have settled yet)"
+     */
+    public static String summary() {
+        return String.format("%d waits, %.1fs total, ~%.1fs saved vs NETWORKIDLE (%d would not have settled yet)",
+                waits.get(), waitedMs.get() / 1000.0, savedMs.get() / 1000.0, unsettledWaits.get());
+    }
+
+    private static String setting(Properties prop, String key, String defaultValue) {
+        return System.getProperty(key, prop.getProperty(key, defaultValue)).trim();
+    }
+
+    private static List<String> list(String value) {
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .toList();
+    }
+}
@@ -0,0 +1,488 @@
+package utilze;
+
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.PlaywrightException;
+import com.microsoft.playwright.Request;
+import com.microsoft.playwright.Response;
+import com.microsoft.playwright.options.Sizes;
+import com.microsoft.playwright.options.Timing;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Accounts what each scenario downloads: requests, bytes (headers + encoded body) and request
+ * time, by resource type and by host. A listener on the browser context feeds plain long
+ * counters of the running scenario; a request is only kept from its response to its end.
+ *
+ * Bytes come from what the client already has: the response headers (Content-Length plus the
+ * header lines), and request time from the timing sent with requestfinished. Responses without
+ * Content-Length (chunked) count their headers only. Request.sizes() is exact but costs a
+ * round trip to the driver for every request, so it is opt-in (network_exact_sizes).
+ *
+ * At the end of the run the heaviest resources and scenarios are ranked in
+ * target/network-usage.json, and every scenario's bytes are compared with the previous run
+ * (.test-history/network-weights.properties) to flag page-weight regressions.
+ *
+ * Settings (BrowserConfig.properties, -D overrides):
+ * - network_usage:            account bytes per scenario (true/false)
+ * - network_weight_tolerance: growth over the previous run flagged as a regression (0.2 = 20%)
+ * - network_exact_sizes:      ask the driver for each request's exact sizes (slower, true/false)
+ */
+public class NetworkUsage {
+
+    private static final Logger logger = LoggerFactory.getLogger(NetworkUsage.class);
+
+    private static final String REPORT = "target/network-usage.json";
+    private static final String DEFAULT_BASELINE = ".test-history/network-weights.properties";
+    private static final double DEFAULT_TOLERANCE = 0.2;
+    private static final int TOP_RESOURCES = 20;
+    private static final int TOP_HOSTS = 10;
+
+    // Playwright's resource types; anything else is counted as "other"
+    private static final String[] TYPES = {"document", "stylesheet", "script", "image", "font", "media",
+            "xhr", "fetch", "websocket", "eventsource", "manifest", "texttrack", "other"};
+    private static final int OTHER = TYPES.length - 1;
+
+    // Counter slots of a long[]: requests, bytes, request time
+    private static final int REQUESTS = 0;
+    private static final int BYTES = 1;
+    private static final int MILLIS = 2;
+
+    // Playwright dispatches context events on the thread calling Playwright: the scenario's thread
+    private static final ThreadLocal<NetworkUsage> current = new ThreadLocal<>();
+    private static final Set<BrowserContext> attached = ConcurrentHashMap.newKeySet();
+    private static volatile double tolerance = DEFAULT_TOLERANCE;
+    private static volatile boolean exactSizes;
+
+    // Run totals, guarded by the class lock
+    private static final long[][] runByType = new long[TYPES.length][3];
+    private static final Map<String, long[]> runByHost = new HashMap<>();
+    private static final List<ScenarioTotal> scenarios = new ArrayList<>();
+    private static final Map<String, Resource> heaviest = new HashMap<>();
+    private static volatile long heaviestFloor;
+    private static Properties baseline;
+
+    private final String scenarioId;
+    private final long[][] byType = new long[TYPES.length][3];
+    private final Map<String, long[]> byHost = new HashMap<>();
+    // Bytes of responses whose request has not finished yet
+    private final Map<Request, Long> responseBytes = new HashMap<>();
+
+    /**
+     * A large resource: the biggest response seen for its URL.
+     */
+    public record Resource(String url, String type, long bytes, long millis, String scenarioId) {
+    }
+
+    /**
+     * What a scenario downloaded, and its bytes in the previous run (-1 when unknown).
+     */
+    public record ScenarioTotal(String scenarioId, long requests, long bytes, long millis, long previousBytes) {
+
+        /**
+         * True when the scenario grew by more than the tolerance since the previous run.
+         */
+        public boolean isRegression(double tolerance) {
+            return previousBytes > 0 && bytes > previousBytes * (1 + tolerance);
+        }
+
+        /**
+         * Returns e.g. "42 requests, 1.8 MB, 3.1s request time (+35% vs previous run)"
+         */
+        public String describe() {
+            String change = previousBytes > 0
+                    ? String.format(" (%+d%% vs previous run)", Math.round((bytes - previousBytes) * 100.0 / previousBytes))
+                    : "";
+            return String.format("%d requests, %s, %.1fs request time%s", requests, megabytes(bytes),
+                    millis / 1000.0, change);
+        }
+    }
+
+    private NetworkUsage(String scenarioId) {
+        this.scenarioId = scenarioId;
+    }
+
+    /**
+     * Accounts the context's requests from now on. Safe to call again for a reused context.
+     */
+    public static void attach(BrowserContext context, Properties prop) {
+        if (!Boolean.parseBoolean(setting(prop, "network_usage", "true")) || !attached.add(context)) {
+            return;
+        }
+        tolerance = Double.parseDouble(setting(prop, "network_weight_tolerance", String.valueOf(DEFAULT_TOLERANCE)));
+        exactSizes = Boolean.parseBoolean(setting(prop, "network_exact_sizes", "false"));
+        if (!exactSizes) {
+            context.onResponse(NetworkUsage::onResponse);
+            context.onRequestFailed(NetworkUsage::onRequestFailed);
+        }
+        context.onRequestFinished(NetworkUsage::onRequestFinished);
+        context.onClose(attached::remove);
+    }
+
+    /**
+     * Starts accounting for a scenario on the current thread.
+     */
+    public static void begin(String scenarioId) {
+        current.set(new NetworkUsage(scenarioId));
+    }
+
+    /**
+     * Stops accounting for the current thread's scenario and adds it to the run totals.
+     * @return the scenario's usage, or null when it made no requests
+     */
+    public static NetworkUsage end() {
+        NetworkUsage usage = current.get();
+        current.remove();
+        if (usage == null || usage.total(REQUESTS) == 0) {
+            return null;
+        }
+        synchronized (NetworkUsage.class) {
+            for (int type = 0; type < TYPES.length; type++) {
+                add(runByType[type], usage.byType[type]);
+            }
+            usage.byHost.forEach((host, counters) -> add(runByHost.computeIfAbsent(host, h -> new long[3]), counters));
+            scenarios.add(usage.toTotal());
+        }
+        return usage;
+    }
+
+    // ==================== REQUEST EVENTS ====================
+
+    private static void onResponse(Response response) {
+        NetworkUsage usage = current.get();
+        if (usage != null) {
+            usage.responseBytes.put(response.request(), responseBytes(response));
+        }
+    }
+
+    private static void onRequestFailed(Request request) {
+        NetworkUsage usage = current.get();
+        if (usage != null) {
+            usage.responseBytes.remove(request);
+        }
+    }
+
+    private static void onRequestFinished(Request request) {
+        NetworkUsage usage = current.get();
+        if (usage == null) {
+            return; // Between scenarios
+        }
+        long bytes;
+        if (exactSizes) {
+            try {
+                Sizes sizes = request.sizes();
+                bytes = Math.max(0, sizes.responseHeadersSize) + Math.max(0, sizes.responseBodySize);
+            } catch (PlaywrightException e) {
+                logger.debug("No sizes for {}: {}", request.url(), e.getMessage());
+                return;
+            }
+        } else {
+            Long known = usage.responseBytes.remove(request);
+            bytes = known != null ? known : 0;
+        }
+        Timing timing = request.timing();
+        long millis = timing.responseEnd > 0 ? Math.round(timing.responseEnd) : 0;
+        usage.add(request.url(), request.resourceType(), bytes, millis);
+    }
+
+    /**
+     * Header lines plus Content-Length, from the headers the response event already carried.
+     */
+    private static long responseBytes(Response response) {
+        // headers() comes with the event; headersArray() and allHeaders() would ask the driver
+        long bytes = 0;
+        long body = 0;
+        for (Map.Entry<String, String> header : response.headers().entrySet()) {
+            bytes += header.getKey().length() + header.getValue().length() + 4; // "name: value\r\n"
+            if ("content-length".equals(header.getKey())) {
+                try {
+                    body = Long.parseLong(header.getValue().trim());
+                } catch (NumberFormatException e) {
+                    body = 0;
+                }
+            }
+        }
+        return bytes + Math.max(0, body);
+    }
+
+    private void add(String url, String resourceType, long bytes, long millis) {
+        int type = typeIndex(resourceType);
+        count(byType[type], bytes, millis);
+        count(byHost.computeIfAbsent(host(url), h -> new long[3]), bytes, millis);
+        if (bytes > heaviestFloor) {
+            offerHeaviest(new Resource(url, TYPES[type], bytes, millis, scenarioId));
+        }
+    }
+
+    private static synchronized void offerHeaviest(Resource resource) {
+        Resource known = heaviest.get(resource.url());
+        if (known != null && known.bytes() >= resource.bytes()) {
+            return;
+        }
+        heaviest.put(resource.url(), resource);
+        if (heaviest.size() > TOP_RESOURCES) {
+            Resource smallest = Collections.min(heaviest.values(), Comparator.comparingLong(Resource::bytes));
+            heaviest.remove(smallest.url());
+            heaviestFloor = Collections.min(heaviest.values(), Comparator.comparingLong(Resource::bytes)).bytes();
+        }
+    }
+
+    private static void count(long[] counters, long bytes, long millis) {
+        counters[REQUESTS]++;
+        counters[BYTES] += bytes;
+        counters[MILLIS] += millis;
+    }
+
+    private static void add(long[] target, long[] counters) {
+        for (int slot = 0; slot < counters.length; slot++) {
+            target[slot] += counters[slot];
+        }
+    }
+
+    private static int typeIndex(String resourceType) {
+        for (int type = 0; type < OTHER; type++) {
+            if (TYPES[type].equals(resourceType)) {
+                return type;
+            }
+        }
+        return OTHER;
+    }
+
+    private static String host(String url) {
+        if (url.startsWith("data:")) {
+            return "data:";
+        }
+        try {
+            String host = URI.create(url).getHost();
+            return host != null ? host : "(none)";
+        } catch (IllegalArgumentException e) {
+            return "(invalid)";
+        }
+    }
+
+    // ==================== SCENARIO ====================
+
+    private long total(int slot) {
+        long total = 0;
+        for (long[] counters : byType) {
+            total += counters[slot];
+        }
+        return total;
+    }
+
+    private ScenarioTotal toTotal() {
+        return new ScenarioTotal(scenarioId, total(REQUESTS), total(BYTES), total(MILLIS), previousBytes(scenarioId));
+    }
+
+    public ScenarioTotal getTotal() {
+        return toTotal();
+    }
+
+    public boolean isRegression() {
+        return toTotal().isRegression(tolerance);
+    }
+
+    /**
+     * The scenario's counters by resource type and by host (heaviest first), for the report.
+     */
+    public String toJson() {
+        ScenarioTotal total = toTotal();
+        return new JSONObject()
+                .put("requests", total.requests())
+                .put("bytes", total.bytes())
+                .put("requestMs", total.millis())
+                .put("previousBytes", total.previousBytes())
+                .put("byType", typesJson(byType))
+                .put("byHost", hostsJson(byHost, TOP_HOSTS))
+                .toString(2);
+    }
+
+    // ==================== RUN REPORT ====================
+
+    public static synchronized boolean hasRequests() {
+        return !scenarios.isEmpty();
+    }
+
+    /**
+     * Returns the run totals, e.g. "1240 requests, 48.2 MB in 12 scenarios (scripts 31.0 MB)"
+     */
+    public static synchronized String summary() {
+        long requests = 0;
+        long bytes = 0;
+        int heaviestType = 0;
+        for (int type = 0; type < TYPES.length; type++) {
+            requests += runByType[type][REQUESTS];
+            bytes += runByType[type][BYTES];
+            if (runByType[type][BYTES] > runByType[heaviestType][BYTES]) {
+                heaviestType = type;
+            }
+        }
+        return String.format("%d requests, %s in %d scenarios (%s %s)", requests, megabytes(bytes), scenarios.size(),
+                TYPES[heaviestType], megabytes(runByType[heaviestType][BYTES]));
+    }
+
+    /**
+     * The heaviest resources of the run, e.g. "2.1 MB script https://cdn.example.com/app.js"
+     */
+    public static synchronized List<String> heaviestResources(int limit) {
+        return heaviest.values().stream()
+                .sorted(Comparator.comparingLong(Resource::bytes).reversed())
+                .limit(limit)
+                .map(r -> String.format("%s %s %s", megabytes(r.bytes()), r.type(), r.url()))
+                .toList();
+    }
+
+    /**
+     * The scenarios that downloaded the most, e.g. "features/x.feature:12 42 requests, 1.8 MB, ..."
+     */
+    public static synchronized List<String> heaviestScenarios(int limit) {
+        return scenarios.stream()
+                .sorted(Comparator.comparingLong(ScenarioTotal::bytes).reversed())
+                .limit(limit)
+                .map(s -> s.scenarioId() + " " + s.describe())
+                .toList();
+    }
+
+    /**
+     * Scenarios that grew by more than network_weight_tolerance since the previous run.
+     */
+    public static synchronized List<String> regressions() {
+        return scenarios.stream()
+                .filter(s -> s.isRegression(tolerance))
+                .map(s -> s.scenarioId() + " " + s.describe())
+                .toList();
+    }
+
+    /**
+     * Writes the ranked run report to target/network-usage.json.
+     */
+    public static synchronized void writeReport() {
+        JSONObject report = new JSONObject();
+        report.put("tolerance", tolerance);
+        report.put("byType", typesJson(runByType));
+        report.put("byHost", hostsJson(runByHost, Integer.MAX_VALUE));
+
+        JSONArray resources = new JSONArray();
+        heaviest.values().stream()
+                .sorted(Comparator.comparingLong(Resource::bytes).reversed())
+                .forEach(r -> resources.put(new JSONObject()
+                        .put("url", r.url())
+                        .put("type", r.type())
+                        .put("bytes", r.bytes())
+                        .put("requestMs", r.millis())
+                        .put("scenario", r.scenarioId())));
+        report.put("heaviestResources", resources);
+
+        JSONArray ranked = new JSONArray();
+        scenarios.stream()
+                .sorted(Comparator.comparingLong(ScenarioTotal::bytes).reversed())
+                .forEach(s -> ranked.put(new JSONObject()
+                        .put("scenario", s.scenarioId())
+                        .put("requests", s.requests())
+                        .put("bytes", s.bytes())
+                        .put("requestMs", s.millis())
+                        .put("previousBytes", s.previousBytes())
+                        .put("regression", s.isRegression(tolerance))));
+        report.put("scenarios", ranked);
+
+        Path path = Paths.get(REPORT);
+        try {
+            Files.createDirectories(path.getParent());
+            Files.writeString(path, report.toString(2), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            logger.warn("Could not write network usage report {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Stores every scenario's bytes as the baseline for the next run's regression check.
+     */
+    public static synchronized void saveBaseline() {
+        Properties weights = loadBaseline();
+        scenarios.forEach(s -> weights.setProperty(s.scenarioId(), String.valueOf(s.bytes())));
+        Path path = baselinePath();
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            try (OutputStream out = Files.newOutputStream(path)) {
+                weights.store(out, "Bytes downloaded per scenario in the last run");
+            }
+        } catch (IOException e) {
+            logger.warn("Could not save network weights to {}: {}", path, e.getMessage());
+        }
+    }
+
+    private static synchronized long previousBytes(String scenarioId) {
+        String value = loadBaseline().getProperty(scenarioId);
+        try {
+            return value != null ? Long.parseLong(value.trim()) : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static Properties loadBaseline() {
+        if (baseline == null) {
+            baseline = new Properties();
+            Path path = baselinePath();
+            if (Files.exists(path)) {
+                try (InputStream in = Files.newInputStream(path)) {
+                    baseline.load(in);
+                } catch (IOException e) {
+                    logger.warn("Could not read network weights from {}: {}", path, e.getMessage());
+                }
+            }
+        }
+        return baseline;
+    }
+
+    private static Path baselinePath() {
+        return Paths.get(System.getProperty("network.weights", DEFAULT_BASELINE));
+    }
+
+    private static JSONObject typesJson(long[][] counters) {
+        JSONObject json = new JSONObject();
+        for (int type = 0; type < TYPES.length; type++) {
+            if (counters[type][REQUESTS] > 0) {
+                json.put(TYPES[type], countersJson(counters[type]));
+            }
+        }
+        return json;
+    }
+
+    private static JSONArray hostsJson(Map<String, long[]> hosts, int limit) {
+        JSONArray array = new JSONArray();
+        hosts.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, long[]> e) -> e.getValue()[BYTES]).reversed())
+                .limit(limit)
+                .forEach(e -> array.put(countersJson(e.getValue()).put("host", e.getKey())));
+        return array;
+    }
+
+    private static JSONObject countersJson(long[] counters) {
+        return new JSONObject()
+                .put("requests", counters[REQUESTS])
+                .put("bytes", counters[BYTES])
+                .put("requestMs", counters[MILLIS]);
+    }
+
+    private static String megabytes(long bytes) {
+        return String.format("%.1f MB", bytes / (1024.0 * 1024));
+    }
+
+    private static String setting(Properties prop, String key, String defaultValue) {
+        return System.getProperty(key, prop.getProperty(key, defaultValue)).trim();
+    }
+}
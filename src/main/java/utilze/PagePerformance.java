@@ -0,0 +1,150 @@
+package utilze;
+
+import com.microsoft.playwright.Page;
+import config.Settings;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Page performance metrics of one scenario, collected after navigations and key interactions:
+ * - ttfb_ms, dom_content_loaded_ms, load_ms: Navigation Timing (relative to navigation start)
+ * - fcp_ms, lcp_ms:                           paint timings
+ * - cls:                                      cumulative layout shift (without input-driven shifts)
+ * - transfer_kb:                              bytes transferred by the document and its resources
+ * Browsers report what they support (LCP and CLS are Chromium only); missing metrics are left out.
+ * Each sample is checked against the environment's budgets ({@link Settings#Budget}).
+ *
+ * Scenario-scoped: obtain it with ScenarioContext.get(PagePerformance.class).
+ */
+public class PagePerformance {
+
+    private static final Logger logger = LoggerFactory.getLogger(PagePerformance.class);
+
+    // Buffered observers deliver LCP and layout-shift entries asynchronously; give up after 20ms
+    private static final String COLLECT_SCRIPT = """
+            async () => {
+                const nav = performance.getEntriesByType('navigation')[0];
+                const paint = Object.fromEntries(performance.getEntriesByType('paint').map(e => [e.name, e.startTime]));
+                const supported = PerformanceObserver.supportedEntryTypes || [];
+                const buffered = type => !supported.includes(type) ? Promise.resolve(null) : new Promise(resolve => {
+                    const observer = new PerformanceObserver(list => { observer.disconnect(); resolve(list.getEntries()); });
+                    observer.observe({ type, buffered: true });
+                    setTimeout(() => { observer.disconnect(); resolve([]); }, 20);
+                });
+                const [lcp, shifts] = await Promise.all([buffered('largest-contentful-paint'), buffered('layout-shift')]);
+                const resources = performance.getEntriesByType('resource');
+                const bytes = (nav ? nav.transferSize : 0) + resources.reduce((sum, r) => sum + (r.transferSize || 0), 0);
+                return {
+                    ttfb_ms: nav ? nav.responseStart : null,
+                    dom_content_loaded_ms: nav && nav.domContentLoadedEventEnd > 0 ? nav.domContentLoadedEventEnd : null,
+                    load_ms: nav && nav.loadEventEnd > 0 ? nav.loadEventEnd : null,
+                    fcp_ms: paint['first-contentful-paint'] ?? null,
+                    lcp_ms: lcp && lcp.length ? lcp[lcp.length - 1].startTime : null,
+                    cls: shifts ? shifts.filter(s => !s.hadRecentInput).reduce((sum, s) => sum + s.value, 0) : null,
+                    transfer_kb: bytes / 1024
+                };
+            }""";
+
+    private static final AtomicInteger totalSamples = new AtomicInteger();
+    private static final AtomicInteger totalViolations = new AtomicInteger();
+
+    private final List<Sample> samples = new ArrayList<>();
+
+    /**
+     * One measurement: where it was taken and what was measured.
+     */
+    public record Sample(String step, String label, String url, String throttling, Map<String, Double> metrics,
+                         List<String> violations) {
+    }
+
+    /**
+     * Collects the page's metrics, stores them for the scenario and checks the budgets.
+     * Throws an AssertionError when a budget is exceeded and budget.mode=fail.
+     * @param step       The Gherkin step being run (may be null)
+     * @param label      What happened before the measurement, e.g. "navigate https://..."
+     * @param throttling Throttling profile the page runs under (null when unthrottled)
+     */
+    public Sample capture(Page page, String step, String label, String throttling) {
+        Map<String, Double> metrics = new LinkedHashMap<>();
+        try {
+            Object result = page.evaluate(COLLECT_SCRIPT);
+            if (result instanceof Map<?, ?> values) {
+                values.forEach((key, value) -> {
+                    if (value instanceof Number number) {
+                        metrics.put(String.valueOf(key), number.doubleValue());
+                    }
+                });
+            }
+        } catch (Exception e) {
+            logger.warn("Could not collect performance metrics after {}: {}", label, e.getMessage());
+            return null;
+        }
+
+        List<String> violations = Settings.Budget.check(metrics);
+        Sample sample = new Sample(step, label, page.url(), throttling, metrics, violations);
+        samples.add(sample);
+        totalSamples.incrementAndGet();
+        totalViolations.addAndGet(violations.size());
+        logger.debug("Performance after {}: {}", label, metrics);
+
+        if (!violations.isEmpty()) {
+            String message = String.format("Performance budget exceeded after %s (%s): %s", label, page.url(), violations);
+            if (Settings.Budget.isFailOnViolation()) {
+                throw new AssertionError(message);
+            }
+            logger.warn(message);
+        }
+        return sample;
+    }
+
+    public List<Sample> getSamples() {
+        return Collections.unmodifiableList(samples);
+    }
+
+    /**
+     * All budget violations of the scenario.
+     */
+    public List<String> getViolations() {
+        List<String> violations = new ArrayList<>();
+        for (Sample sample : samples) {
+            sample.violations().forEach(v -> violations.add(sample.label() + ": " + v));
+        }
+        return violations;
+    }
+
+    /**
+     * The scenario's samples as a JSON array, for report attachments.
+     */
+    public String toJson() {
+        JSONArray json = new JSONArray();
+        for (Sample sample : samples) {
+            json.put(new JSONObject()
+                    .put("step", sample.step() == null ? JSONObject.NULL : sample.step())
+                    .put("label", sample.label())
+                    .put("url", sample.url())
+                    .put("throttling", sample.throttling() == null ? JSONObject.NULL : sample.throttling())
+                    .put("metrics", new JSONObject(sample.metrics()))
+                    .put("violations", new JSONArray(sample.violations())));
+        }
+        return json.toString(2);
+    }
+
+    // ==================== SUMMARY ====================
+
+    public static boolean hasSamples() {
+        return totalSamples.get() > 0;
+    }
+
+    /**
+     * Returns e.g. "42 samples, 3 budget violations (warn)"
+     */
+    public static String summary() {
+        return String.format("%d samples, %d budget violations (%s)", totalSamples.get(), totalViolations.get(),
+                Settings.Budget.isFailOnViolation() ? "fail" : "warn");
+    }
+}
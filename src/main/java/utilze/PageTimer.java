@@ -0,0 +1,231 @@
+package utilze;
+
+import Initialization.ScenarioContext;
+import com.microsoft.playwright.JSHandle;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.PlaywrightException;
+import com.microsoft.playwright.TimeoutError;
+import com.microsoft.playwright.options.LoadState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Measures user-visible timings from a marked start to a page condition:
+ * - start: the last click or navigation (marked automatically by {@link playwright}),
+ *          or an explicit mark(), which later clicks do not replace until it is measured
+ * - end:   a new document finished loading, elements became visible, or a response arrived
+ *
+ * The end is taken in the browser (requestAnimationFrame when the condition first holds,
+ * Navigation/Resource Timing for loads and responses), so polling does not add to the result.
+ * The browser clock is aligned with the JVM clock by a round trip at measurement time.
+ *
+ * Scenario-scoped: obtain it with ScenarioContext.get(PageTimer.class).
+ */
+public class PageTimer {
+
+    private static final Logger logger = LoggerFactory.getLogger(PageTimer.class);
+
+    private static final String NOW_SCRIPT = "() => performance.timeOrigin + performance.now()";
+
+    // A document whose navigation started after the mark has loaded: its load event end
+    private static final String LOAD_SCRIPT = """
+            start => {
+                const nav = performance.getEntriesByType('navigation')[0];
+                return performance.timeOrigin >= start && nav && nav.loadEventEnd > 0
+                    ? performance.timeOrigin + nav.loadEventEnd : false;
+            }""";
+
+    // At least `count` elements (XPath or CSS) are visible: the frame time this was first seen
+    private static final String VISIBLE_SCRIPT = """
+            ({ selector, count }) => {
+                let elements;
+                if (selector.startsWith('/') || selector.startsWith('(')) {
+                    const result = document.evaluate(selector, document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);
+                    elements = Array.from({ length: result.snapshotLength }, (_, i) => result.snapshotItem(i));
+                } else {
+                    elements = Array.from(document.querySelectorAll(selector));
+                }
+                const visible = elements.filter(e => e.checkVisibility
+                    ? e.checkVisibility() : e.getClientRects().length > 0).length;
+                return visible >= count ? performance.timeOrigin + performance.now() : false;
+            }""";
+
+    // A request to a matching URL, started after the mark, has finished: its response end
+    private static final String RESPONSE_SCRIPT = """
+            ({ start, fragment }) => {
+                const entries = performance.getEntriesByType('navigation').concat(performance.getEntriesByType('resource'));
+                const match = entries.find(e => e.name.includes(fragment) && e.responseEnd > 0
+                    && performance.timeOrigin + e.startTime >= start);
+                return match ? performance.timeOrigin + match.responseEnd : false;
+            }""";
+
+    private final playwright pm;
+
+    private String startLabel;
+    private double startEpochMs = -1;
+    private boolean pinned;
+
+    public PageTimer(playwright pm) {
+        this.pm = pm;
+    }
+
+    // ==================== START ====================
+
+    /**
+     * Marks the start explicitly. Clicks and navigations do not move it until it has been measured.
+     */
+    public void mark(String label) {
+        startLabel = label;
+        startEpochMs = epochMs();
+        pinned = true;
+        logger.debug("Timing started: {}", label);
+    }
+
+    /**
+     * Marks the start at a click or navigation, unless an explicit mark is waiting to be measured.
+     */
+    public void markAction(String label) {
+        if (!pinned) {
+            startLabel = label;
+            startEpochMs = epochMs();
+        }
+    }
+
+    /**
+     * Marks the start for the scenario's timer; no-op outside a scenario.
+     */
+    public static void markActionIfActive(String label) {
+        if (ScenarioContext.isActive()) {
+            ScenarioContext.get(PageTimer.class).markAction(label);
+        }
+    }
+
+    public String getStartLabel() {
+        return startLabel;
+    }
+
+    /**
+     * Throttling profile the measurements run under, or null when unthrottled.
+     */
+    public String getThrottling() {
+        return pm.getThrottling();
+    }
+
+    // ==================== MEASUREMENTS ====================
+
+    /**
+     * Milliseconds from the start until a document navigated to after the start fired its load event.
+     * Single-page navigations do not load a document; measure an element of the new view instead.
+     */
+    public double measureLoad() {
+        return measure("page load", (page, start) -> page.waitForFunction(LOAD_SCRIPT, start));
+    }
+
+    /**
+     * Milliseconds from the start until at least count elements matching the selector are visible.
+     * @param selector XPath (starting with / or () or CSS selector
+     */
+    public double measureVisible(String selector, int count) {
+        return measure(count + " x " + selector, (page, start) ->
+                page.waitForFunction(VISIBLE_SCRIPT, Map.of("selector", selector, "count", count)));
+    }
+
+    /**
+     * Milliseconds from the start until a response to a URL containing the fragment has been received.
+     */
+    public double measureResponse(String urlFragment) {
+        return measure("response " + urlFragment, (page, start) ->
+                page.waitForFunction(RESPONSE_SCRIPT, Map.of("start", start, "fragment", urlFragment)));
+    }
+
+    // ==================== ASSERTIONS ====================
+
+    /**
+     * Fails when a single measurement exceeds its budget.
+     */
+    public void assertWithin(String label, double ms, long budgetMs) {
+        if (ms > budgetMs) {
+            throw new AssertionError(String.format("%s took %d ms after %s (budget %d ms)",
+                    label, Math.round(ms), startLabel, budgetMs));
+        }
+    }
+
+    /**
+     * Adds the measurement to its Scenario Outline series and, once every row has reported,
+     * fails when the series' percentile exceeds the budget (see {@link TimingSeries}).
+     * @param line     Line Cucumber reports for the scenario (the Examples row for outlines)
+     * @param sampleId Id of the run scenario
+     */
+    public void assertPercentileWithin(URI featureUri, int line, String sampleId, String label,
+                                       double ms, int percentile, long budgetMs) {
+        TimingSeries.Result result = TimingSeries.record(featureUri, line, sampleId, label, percentile, ms);
+        if (!result.complete()) {
+            logger.info("{}: {} ms so far ({}/{} rows)", result.name(), Math.round(result.value()),
+                    result.samples(), result.expected());
+            return;
+        }
+        if (result.value() > budgetMs) {
+            throw new AssertionError(String.format("%s = %d ms over %d rows (budget %d ms)",
+                    result.name(), Math.round(result.value()), result.samples(), budgetMs));
+        }
+    }
+
+    private interface Condition {
+        // Waits in the browser and returns a handle to the browser time the condition was met
+        JSHandle await(Page page, double browserStart);
+    }
+
+    private double measure(String what, Condition condition) {
+        if (startEpochMs < 0) {
+            throw new IllegalStateException("No timing start marked before measuring " + what
+                    + " (click, navigate or mark() first)");
+        }
+        Page page = pm.getPage();
+        double[] clock = browserClock(page);
+        // Allow for the uncertainty of the clock alignment when comparing with browser start times
+        double browserStart = startEpochMs + clock[0] - clock[1];
+
+        double end;
+        try {
+            end = ((Number) condition.await(page, browserStart).jsonValue()).doubleValue();
+        } catch (TimeoutError e) {
+            pinned = false;
+            String error = String.format("Timed out waiting for %s after %s", what, startLabel);
+            logger.error(error);
+            throw new AssertionError(error, e);
+        }
+        double elapsed = Math.max(0, end - clock[0] - startEpochMs);
+        pinned = false;
+        logger.info("{} after {}: {} ms", what, startLabel, Math.round(elapsed));
+        return elapsed;
+    }
+
+    /**
+     * Returns { browser clock - JVM clock, uncertainty } in ms, from one round trip to the page.
+     * Waits for the document to be ready when a navigation is in progress.
+     */
+    private static double[] browserClock(Page page) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                double before = epochMs();
+                double browserNow = ((Number) page.evaluate(NOW_SCRIPT)).doubleValue();
+                double after = epochMs();
+                return new double[]{browserNow - (before + after) / 2, (after - before) / 2};
+            } catch (PlaywrightException e) {
+                if (attempt == 2) {
+                    throw e;
+                }
+                page.waitForLoadState(LoadState.DOMCONTENTLOADED);
+            }
+        }
+    }
+
+    private static double epochMs() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1000.0 + now.getNano() / 1_000_000.0;
+    }
+}
@@ -0,0 +1,151 @@
+package utilze;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Rotates report directories at suite start without blocking the first scenario.
+ * Each directory is renamed aside in one atomic step (e.g. target/traces ->
+ * target/traces.run-20260101-120000), and old runs are deleted on a background thread
+ * while tests run. Optionally the last N runs are kept for comparison, bounded by total size.
+ * Leftovers from an interrupted run are picked up by the next rotation.
+ */
+public class ReportRotation {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportRotation.class);
+
+    private static final String RUN_SUFFIX = ".run-";
+    private static final DateTimeFormatter RUN_ID = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private static Thread pruner;
+
+    private ReportRotation() {
+    }
+
+    /**
+     * Renames the given directories aside and starts pruning old runs in the background.
+     * @param dirs            Report directories (or files) to rotate
+     * @param keepRuns        Number of previous runs to keep (0 = keep none)
+     * @param maxHistoryBytes Upper bound for the kept runs, all directories together
+     */
+    public static synchronized void rotate(List<String> dirs, int keepRuns, long maxHistoryBytes) {
+        String runId = LocalDateTime.now().format(RUN_ID);
+
+        for (String dir : dirs) {
+            Path path = Paths.get(dir);
+            if (!Files.exists(path)) {
+                continue;
+            }
+            Path rotated = path.resolveSibling(path.getFileName() + RUN_SUFFIX + runId);
+            try {
+                Files.move(path, rotated, StandardCopyOption.ATOMIC_MOVE);
+                logger.debug("Rotated {} -> {}", path, rotated);
+            } catch (IOException e) {
+                // Rename not possible (e.g. directory is a mount point): fall back to deleting in place
+                logger.warn("Could not rotate {}: {}, deleting it instead", dir, e.getMessage());
+                delete(path);
+            }
+        }
+
+        pruner = new Thread(() -> prune(dirs, Math.max(0, keepRuns), maxHistoryBytes), "report-rotation");
+        pruner.setDaemon(true);
+        pruner.start();
+    }
+
+    /**
+     * Waits (bounded) for the background pruning to finish.
+     */
+    public static synchronized void awaitCompletion(long timeoutMs) {
+        if (pruner == null) {
+            return;
+        }
+        try {
+            pruner.join(timeoutMs);
+            if (pruner.isAlive()) {
+                logger.warn("Report rotation still running after {}ms", timeoutMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Keeps the newest runs (all their directories together) while they fit in maxHistoryBytes;
+     * older runs, and every run after the first one that does not fit, are deleted.
+     */
+    private static void prune(List<String> dirs, int keepRuns, long maxHistoryBytes) {
+        long start = System.currentTimeMillis();
+        int deleted = 0;
+
+        // Rotated directories grouped by run id, newest first: run ids sort chronologically
+        Map<String, List<Path>> runs = new TreeMap<>(Comparator.reverseOrder());
+        for (String dir : dirs) {
+            String prefix = Paths.get(dir).getFileName() + RUN_SUFFIX;
+            for (Path run : previousRuns(Paths.get(dir))) {
+                String runId = run.getFileName().toString().substring(prefix.length());
+                runs.computeIfAbsent(runId, k -> new ArrayList<>()).add(run);
+            }
+        }
+
+        long keptBytes = 0;
+        int keptRuns = 0;
+        boolean full = keepRuns == 0;
+        for (List<Path> run : runs.values()) {
+            if (!full) {
+                long size = run.stream().mapToLong(ReportRotation::size).sum();
+                if (keptRuns < keepRuns && keptBytes + size <= maxHistoryBytes) {
+                    keptBytes += size;
+                    keptRuns++;
+                    continue;
+                }
+                full = true;
+            }
+            run.forEach(ReportRotation::delete);
+            deleted += run.size();
+        }
+
+        logger.info("Report rotation kept {} runs ({} MB), removed {} old run directories in {}ms", keptRuns,
+                keptBytes / (1024 * 1024), deleted, System.currentTimeMillis() - start);
+    }
+
+    private static List<Path> previousRuns(Path dir) {
+        Path parent = dir.toAbsolutePath().getParent();
+        String prefix = dir.getFileName() + RUN_SUFFIX;
+        List<Path> runs = new ArrayList<>();
+        if (parent == null || !Files.isDirectory(parent)) {
+            return runs;
+        }
+        try (DirectoryStream<Path> siblings = Files.newDirectoryStream(parent, prefix + "*")) {
+            siblings.forEach(runs::add);
+        } catch (IOException e) {
+            logger.warn("Could not list previous runs of {}: {}", dir, e.getMessage());
+        }
+        return runs;
+    }
+
+    private static long size(Path path) {
+        try (Stream<Path> files = Files.walk(path)) {
+            return files.filter(Files::isRegularFile).mapToLong(p -> p.toFile().length()).sum();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static void delete(Path path) {
+        try (Stream<Path> files = Files.walk(path)) {
+            files.sorted(Comparator.reverseOrder())
+                    .map(Path::toFile)
+                    .forEach(File::delete);
+        } catch (IOException e) {
+            logger.warn("Cleanup failed for {}: {}", path, e.getMessage());
+        }
+    }
+}
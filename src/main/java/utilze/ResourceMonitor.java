@@ -0,0 +1,334 @@
+package utilze;
+
+import config.DriverStartup;
+import execution.AdaptiveConcurrency;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Samples the resident memory and CPU time of each worker's Playwright driver and the browser
+ * processes it launched (the driver's descendants) at a fixed interval: RSS from VmRSS in
+ * /proc/<pid>/status, CPU time from ProcessHandle.Info (which knows the kernel's clock tick).
+ * Usage is attributed to the scenario the worker is running, giving peak and average figures
+ * per scenario and per worker to choose parallelism and container limits.
+ * A browser on a shared browser server is not a descendant of the driver and is not counted.
+ * Linux only; elsewhere nothing is sampled.
+ *
+ * Settings (BrowserConfig.properties, -D overrides):
+ * - resource_monitor:          sample driver and browser processes (true/false); always on with
+ *                              -Dworkers=auto, whose memory check needs the measured figures
+ * - resource_monitor_interval: sampling interval in ms
+ */
+public class ResourceMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResourceMonitor.class);
+
+    private static final String REPORT = "target/resource-usage.json";
+    private static final int DEFAULT_INTERVAL = 500; // 500 milliseconds
+    private static final String VM_RSS = "VmRSS:"; // line of /proc/<pid>/status, in kB
+
+    private static volatile boolean enabled;
+    private static volatile long interval = DEFAULT_INTERVAL;
+    private static Thread sampler;
+
+    private static final Map<String, Worker> workers = new ConcurrentHashMap<>();
+
+    /**
+     * Peak and average of one scenario or one worker.
+     */
+    public static class Usage {
+        private final String name;
+        private final long startMillis = System.currentTimeMillis();
+        private long endMillis;
+        private int samples;
+        private long peakRssBytes;
+        private long rssByteSum;
+        private int peakProcesses;
+        private long cpuMillis;
+
+        Usage(String name) {
+            this.name = name;
+        }
+
+        private void add(long rssBytes, int processes, long cpuDeltaMillis) {
+            samples++;
+            peakRssBytes = Math.max(peakRssBytes, rssBytes);
+            rssByteSum += rssBytes;
+            peakProcesses = Math.max(peakProcesses, processes);
+            cpuMillis += cpuDeltaMillis;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getPeakRssMb() {
+            return peakRssBytes / (1024 * 1024);
+        }
+
+        public long getAverageRssMb() {
+            return samples == 0 ? 0 : rssByteSum / samples / (1024 * 1024);
+        }
+
+        public long getCpuMillis() {
+            return cpuMillis;
+        }
+
+        /**
+         * Average CPU cores used while the scenario (or worker) ran.
+         */
+        public double getAverageCores() {
+            long elapsed = (endMillis > 0 ? endMillis : System.currentTimeMillis()) - startMillis;
+            return elapsed <= 0 ? 0 : (double) cpuMillis / elapsed;
+        }
+
+        /**
+         * Returns e.g. "peak 812 MB, avg 640 MB RSS, 1.9s CPU (1.20 cores), 9 processes"
+         */
+        public String describe() {
+            return String.format("peak %d MB, avg %d MB RSS, %.1fs CPU (%.2f cores), %d processes",
+                    getPeakRssMb(), getAverageRssMb(), cpuMillis / 1000.0, getAverageCores(), peakProcesses);
+        }
+
+        private JSONObject toJson() {
+            return new JSONObject()
+                    .put("name", name)
+                    .put("samples", samples)
+                    .put("peakRssMb", getPeakRssMb())
+                    .put("avgRssMb", getAverageRssMb())
+                    .put("cpuMs", cpuMillis)
+                    .put("avgCores", Math.round(getAverageCores() * 100) / 100.0)
+                    .put("peakProcesses", peakProcesses);
+        }
+    }
+
+    /**
+     * A thread running scenarios, with its driver process and the CPU seen per process.
+     */
+    private static class Worker {
+        final Usage total;
+        final List<Usage> scenarios = new ArrayList<>();
+        final Map<Long, Long> lastCpu = new HashMap<>();
+        long driverPid = -1;
+        Usage current;
+
+        Worker(String name) {
+            total = new Usage(name);
+        }
+    }
+
+    private ResourceMonitor() {
+    }
+
+    /**
+     * True when resource_monitor is set or the adaptive worker count needs the measurements.
+     */
+    public static boolean isRequested(Properties prop) {
+        return Boolean.parseBoolean(setting(prop, "resource_monitor", "false")) || AdaptiveConcurrency.isEnabled();
+    }
+
+    /**
+     * Reads the settings and starts the sampler thread when monitoring is enabled.
+     */
+    public static synchronized void configure(Properties prop) {
+        enabled = isRequested(prop);
+        interval = Long.parseLong(setting(prop, "resource_monitor_interval", String.valueOf(DEFAULT_INTERVAL)));
+        if (enabled && !Files.isDirectory(Paths.get("/proc/self"))) {
+            logger.info("Resource monitor disabled: /proc is not available on this system");
+            enabled = false;
+        }
+        if (enabled && sampler == null) {
+            sampler = new Thread(ResourceMonitor::sampleLoop, "resource-monitor");
+            sampler.setDaemon(true);
+            sampler.start();
+        }
+    }
+
+    /**
+     * Starts attributing the current worker's usage to the scenario.
+     */
+    public static void beginScenario(String scenarioId) {
+        if (!enabled) {
+            return;
+        }
+        Worker worker = workers.computeIfAbsent(Thread.currentThread().getName(), Worker::new);
+        synchronized (worker) {
+            worker.current = new Usage(scenarioId);
+            sample(worker);
+        }
+    }
+
+    /**
+     * Stops attributing usage to the current worker's scenario.
+     * @return the scenario's usage, or null when nothing was sampled
+     */
+    public static Usage endScenario() {
+        Worker worker = enabled ? workers.get(Thread.currentThread().getName()) : null;
+        if (worker == null) {
+            return null;
+        }
+        synchronized (worker) {
+            sample(worker);
+            Usage usage = worker.current;
+            worker.current = null;
+            if (usage == null || usage.samples == 0) {
+                return null;
+            }
+            usage.endMillis = System.currentTimeMillis();
+            worker.scenarios.add(usage);
+            return usage;
+        }
+    }
+
+    // ==================== SAMPLING ====================
+
+    private static void sampleLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(interval);
+            } catch (InterruptedException e) {
+                return;
+            }
+            for (Worker worker : workers.values()) {
+                synchronized (worker) {
+                    sample(worker);
+                }
+            }
+        }
+    }
+
+    /**
+     * Samples the worker's driver and its descendants; the worker's lock is held.
+     */
+    private static void sample(Worker worker) {
+        if (worker.driverPid < 0 || !ProcessHandle.of(worker.driverPid).map(ProcessHandle::isAlive).orElse(false)) {
+            // The driver starts on the worker's first scenario (or again after cleanupAll)
+            worker.driverPid = DriverStartup.getDriverPid(worker.total.getName()).orElse(-1);
+            if (worker.driverPid < 0 || !ProcessHandle.of(worker.driverPid).map(ProcessHandle::isAlive).orElse(false)) {
+                worker.driverPid = -1;
+                return;
+            }
+        }
+
+        List<ProcessHandle> handles = new ArrayList<>();
+        ProcessHandle.of(worker.driverPid).ifPresent(driver -> {
+            handles.add(driver);
+            driver.descendants().forEach(handles::add);
+        });
+
+        long rss = 0;
+        long cpuDelta = 0;
+        int processes = 0;
+        Map<Long, Long> cpu = new HashMap<>();
+        for (ProcessHandle process : handles) {
+            long processRss = rssBytes(process.pid());
+            if (processRss < 0) {
+                continue; // Exited in between
+            }
+            long processCpu = cpuMillis(process);
+            processes++;
+            rss += processRss;
+            cpu.put(process.pid(), processCpu);
+            // New processes count from zero; exited ones no longer add anything
+            cpuDelta += Math.max(0, processCpu - worker.lastCpu.getOrDefault(process.pid(), 0L));
+        }
+        worker.lastCpu.clear();
+        worker.lastCpu.putAll(cpu);
+
+        worker.total.add(rss, processes, cpuDelta);
+        if (worker.current != null) {
+            worker.current.add(rss, processes, cpuDelta);
+        }
+    }
+
+    /**
+     * Reads a process's resident memory from the VmRSS line of /proc/<pid>/status.
+     * @return bytes, or -1 when the process is gone or /proc is unavailable
+     */
+    public static long rssBytes(long pid) {
+        try (BufferedReader reader = Files.newBufferedReader(Path.of("/proc", String.valueOf(pid), "status"))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(VM_RSS)) {
+                    // e.g. "VmRSS:\t  204812 kB"
+                    return Long.parseLong(line.substring(VM_RSS.length()).trim().split("\\s+")[0]) * 1024;
+                }
+            }
+            return 0; // Kernel threads and zombies have no VmRSS
+        } catch (IOException | RuntimeException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * A process's CPU time (user + system) so far, or 0 when the OS does not report it.
+     */
+    public static long cpuMillis(ProcessHandle process) {
+        return process.info().totalCpuDuration().map(Duration::toMillis).orElse(0L);
+    }
+
+    // ==================== SUMMARY ====================
+
+    public static boolean hasSamples() {
+        return workers.values().stream().anyMatch(worker -> worker.total.samples > 0);
+    }
+
+    /**
+     * One line per worker, e.g. "TestNG-PoolService-1: 6 scenarios, peak 812 MB, avg 640 MB RSS, ..."
+     */
+    public static List<String> summary() {
+        List<String> lines = new ArrayList<>();
+        for (Worker worker : workers.values()) {
+            synchronized (worker) {
+                if (worker.total.samples > 0) {
+                    lines.add(worker.total.getName() + ": " + worker.scenarios.size() + " scenarios, "
+                            + worker.total.describe());
+                }
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Writes per-worker and per-scenario usage to target/resource-usage.json.
+     */
+    public static void writeReport() {
+        if (!hasSamples()) {
+            return;
+        }
+        JSONArray workerArray = new JSONArray();
+        for (Worker worker : workers.values()) {
+            synchronized (worker) {
+                JSONArray scenarioArray = new JSONArray();
+                worker.scenarios.forEach(usage -> scenarioArray.put(usage.toJson()));
+                workerArray.put(worker.total.toJson().put("scenarios", scenarioArray));
+            }
+        }
+        JSONObject report = new JSONObject()
+                .put("intervalMs", interval)
+                .put("workers", workerArray);
+        Path path = Paths.get(REPORT);
+        try {
+            Files.createDirectories(path.getParent());
+            Files.writeString(path, report.toString(2), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            logger.warn("Could not write resource usage report {}: {}", path, e.getMessage());
+        }
+    }
+
+    private static String setting(Properties prop, String key, String defaultValue) {
+        return System.getProperty(key, prop.getProperty(key, defaultValue)).trim();
+    }
+}
@@ -0,0 +1,158 @@
+package utilze;
+
+import ch.qos.logback.classic.PatternLayout;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import org.slf4j.MDC;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Logback appender that keeps the last DEBUG events of each running scenario in a bounded
+ * in-memory ring buffer. Events are keyed by the "scenario" MDC value set by the hooks;
+ * events logged outside a scenario are ignored. Passing scenarios just drop their buffer,
+ * failed scenarios dump it into the report.
+ *
+ * logback.xml:
+ *   <appender name="SCENARIO" class="utilze.ScenarioLogBuffer">
+ *       <capacity>500</capacity>
+ *       <pattern>%d{HH:mm:ss.SSS} [%thread] %-5level %logger{36} - %msg%n</pattern>
+ *   </appender>
+ */
+public class ScenarioLogBuffer extends AppenderBase<ILoggingEvent> {
+
+    public static final String MDC_KEY = "scenario";
+
+    private static final int DEFAULT_CAPACITY = 500;
+    private static final String DEFAULT_PATTERN = "%d{HH:mm:ss.SSS} [%thread] %-5level %logger{36} - %msg%n";
+
+    // Appender created by logback.xml (null when not configured)
+    private static volatile ScenarioLogBuffer instance;
+
+    private final Map<String, Ring> buffers = new ConcurrentHashMap<>();
+    private int capacity = DEFAULT_CAPACITY;
+    private String pattern = DEFAULT_PATTERN;
+    private PatternLayout layout;
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public void setPattern(String pattern) {
+        this.pattern = pattern;
+    }
+
+    @Override
+    public void start() {
+        if (capacity <= 0) {
+            addError("capacity must be positive for appender " + getName());
+            return;
+        }
+        layout = new PatternLayout();
+        layout.setContext(getContext());
+        layout.setPattern(pattern);
+        layout.start();
+        super.start();
+        instance = this;
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+        buffers.clear();
+        if (instance == this) {
+            instance = null;
+        }
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        String scenario = event.getMDCPropertyMap().get(MDC_KEY);
+        if (scenario == null) {
+            return;
+        }
+        Ring ring = buffers.get(scenario);
+        if (ring != null) {
+            // Freeze the formatted message, thread name and MDC now (done for every buffered
+            // event); the pattern layout is applied only on dump
+            event.prepareForDeferredProcessing();
+            ring.add(event);
+        }
+    }
+
+    // ==================== SCENARIO LIFECYCLE ====================
+
+    /**
+     * Starts capturing for a scenario on the current thread.
+     */
+    public static void begin(String scenarioId) {
+        MDC.put(MDC_KEY, scenarioId);
+        ScenarioLogBuffer appender = instance;
+        if (appender != null) {
+            appender.buffers.put(scenarioId, new Ring(appender.capacity));
+        }
+    }
+
+    /**
+     * Stops capturing and discards the scenario's buffer.
+     */
+    public static void end(String scenarioId) {
+        MDC.remove(MDC_KEY);
+        ScenarioLogBuffer appender = instance;
+        if (appender != null && scenarioId != null) {
+            appender.buffers.remove(scenarioId);
+        }
+    }
+
+    /**
+     * Formats the scenario's buffered events, oldest first.
+     * @return The captured log, or an empty string when nothing was captured
+     */
+    public static String dump(String scenarioId) {
+        ScenarioLogBuffer appender = instance;
+        Ring ring = appender == null || scenarioId == null ? null : appender.buffers.get(scenarioId);
+        if (ring == null) {
+            return "";
+        }
+        StringBuilder log = new StringBuilder();
+        long dropped = ring.dropped();
+        if (dropped > 0) {
+            log.append("... ").append(dropped).append(" earlier events dropped\n");
+        }
+        for (ILoggingEvent event : ring.snapshot()) {
+            log.append(appender.layout.doLayout(event));
+        }
+        return log.toString();
+    }
+
+    /**
+     * Fixed-size ring of events; the oldest event is overwritten when full.
+     */
+    private static class Ring {
+        private final ILoggingEvent[] events;
+        private long written;
+
+        Ring(int capacity) {
+            this.events = new ILoggingEvent[capacity];
+        }
+
+        synchronized void add(ILoggingEvent event) {
+            events[(int) (written % events.length)] = event;
+            written++;
+        }
+
+        synchronized ILoggingEvent[] snapshot() {
+            int size = (int) Math.min(written, events.length);
+            ILoggingEvent[] copy = new ILoggingEvent[size];
+            for (int i = 0; i < size; i++) {
+                copy[i] = events[(int) ((written - size + i) % events.length)];
+            }
+            return copy;
+        }
+
+        synchronized long dropped() {
+            return Math.max(0, written - events.length);
+        }
+    }
+}
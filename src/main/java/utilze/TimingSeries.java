@@ -0,0 +1,99 @@
+package utilze;
+
+import execution.FeatureIndex;
+import execution.ScenarioTimingStore;
+
+import java.net.URI;
+import java.util.*;
+
+/**
+ * Timings repeated across the rows of a Scenario Outline, for percentile assertions.
+ * A series is one measurement (e.g. "cart page load") of one outline; each row adds its
+ * sample (a retried row replaces its earlier sample). The percentile is asserted once every
+ * row of the outline has reported, by whichever row completes the series.
+ * Plain scenarios form a series of one.
+ */
+public class TimingSeries {
+
+    private static final Map<String, Series> series = new LinkedHashMap<>();
+
+    private TimingSeries() {
+    }
+
+    /**
+     * State of a series after adding a sample.
+     * @param complete True when every row of the outline has reported
+     */
+    public record Result(String name, int percentile, double value, int samples, int expected, boolean complete) {
+    }
+
+    private static class Series {
+        final int expected;
+        final int percentile;
+        final Map<String, Double> samples = new LinkedHashMap<>();
+
+        Series(int expected, int percentile) {
+            this.expected = expected;
+            this.percentile = percentile;
+        }
+    }
+
+    /**
+     * Adds a sample for the scenario at the given location and returns the series' percentile so far.
+     * @param sampleId Id of the run scenario (outline row, with Excel row suffix if any)
+     */
+    public static synchronized Result record(URI featureUri, int line, String sampleId, String label,
+                                             int percentile, double ms) {
+        FeatureIndex.ScenarioEntry entry = FeatureIndex.getInstance().getScenario(featureUri, line);
+        String key;
+        int expected;
+        if (entry == null) {
+            key = ScenarioTimingStore.scenarioId(featureUri, line);
+            expected = 1;
+        } else {
+            key = entry.uri() + ":" + entry.scenarioLine();
+            expected = (int) FeatureIndex.getInstance().getScenarios().stream()
+                    .filter(s -> s.uri().equals(entry.uri()) && s.scenarioLine() == entry.scenarioLine())
+                    .count();
+        }
+        String name = key + " " + label + " p" + percentile;
+        Series current = series.computeIfAbsent(name, k -> new Series(expected, percentile));
+        current.samples.put(sampleId, ms);
+        return result(name, current);
+    }
+
+    /**
+     * Nearest-rank percentile of the samples.
+     */
+    public static double percentile(Collection<Double> samples, int percentile) {
+        List<Double> sorted = new ArrayList<>(samples);
+        Collections.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.size());
+        return sorted.get(Math.max(0, Math.min(sorted.size(), rank) - 1));
+    }
+
+    private static Result result(String name, Series current) {
+        return new Result(name, current.percentile, percentile(current.samples.values(), current.percentile),
+                current.samples.size(), current.expected, current.samples.size() >= current.expected);
+    }
+
+    // ==================== SUMMARY ====================
+
+    public static synchronized boolean hasSeries() {
+        return !series.isEmpty();
+    }
+
+    /**
+     * One line per series, e.g. "features/cart.feature:12 cart page load p90 = 1320 ms (10/10 rows)".
+     * Series whose outline did not run completely were not asserted.
+     */
+    public static synchronized List<String> summary() {
+        List<String> lines = new ArrayList<>();
+        series.forEach((name, current) -> {
+            Result result = result(name, current);
+            lines.add(String.format("%s = %d ms (%d/%d rows%s)", name, Math.round(result.value()),
+                    result.samples(), result.expected(), result.complete() ? "" : ", not asserted"));
+        });
+        return lines;
+    }
+}
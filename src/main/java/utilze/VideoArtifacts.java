@@ -0,0 +1,175 @@
+package utilze;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Video recording modes and per-scenario video handling.
+ * - off:               no recording
+ * - on:                record and keep every scenario
+ * - retain-on-failure: record every scenario, delete videos of passing scenarios
+ * Each scenario records into its own directory under target/videos, so parallel
+ * scenarios never collide. Deletes run on a background thread.
+ */
+public class VideoArtifacts {
+
+    private static final Logger logger = LoggerFactory.getLogger(VideoArtifacts.class);
+
+    private static final String VIDEOS_DIR = "target/videos";
+
+    private static final AtomicLong retainedBytes = new AtomicLong();
+    private static final AtomicLong deletedBytes = new AtomicLong();
+    private static final AtomicInteger retainedCount = new AtomicInteger();
+    private static final AtomicInteger deletedCount = new AtomicInteger();
+
+    private static final ExecutorService deleter = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "video-cleanup");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private VideoArtifacts() {
+    }
+
+    /**
+     * Video recording mode.
+     */
+    public enum Mode {
+        OFF, ON, RETAIN_ON_FAILURE;
+
+        public static Mode parse(String value) {
+            if (value == null || value.isBlank()) {
+                return OFF;
+            }
+            return switch (value.trim().toLowerCase()) {
+                case "on", "true" -> ON;
+                case "retain-on-failure", "retain_on_failure" -> RETAIN_ON_FAILURE;
+                case "off", "false" -> OFF;
+                default -> {
+                    logger.warn("Unknown video_mode '{}', recording disabled", value);
+                    yield OFF;
+                }
+            };
+        }
+    }
+
+    /**
+     * Reads the video mode.
+     * Priority: Command line (-Dvideo_mode=on) > video_mode > legacy record_video=true
+     */
+    public static Mode getMode(Properties prop) {
+        String mode = System.getProperty("video_mode", prop.getProperty("video_mode"));
+        if (mode == null) {
+            mode = prop.getProperty("record_video");
+        }
+        return Mode.parse(mode);
+    }
+
+    /**
+     * Directory a scenario records its video into.
+     */
+    public static Path scenarioDir(String artifactName) {
+        return Paths.get(VIDEOS_DIR, artifactName);
+    }
+
+    /**
+     * Lists the finished videos in a scenario directory (call after the context is closed).
+     */
+    public static List<Path> videos(Path scenarioDir) {
+        if (scenarioDir == null || !Files.isDirectory(scenarioDir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(scenarioDir)) {
+            return files.filter(Files::isRegularFile).sorted().toList();
+        } catch (IOException e) {
+            logger.warn("Could not list videos in {}: {}", scenarioDir, e.getMessage());
+            return List.of();
+        }
+    }
+
+    /**
+     * Keeps or schedules deletion of a finished scenario's videos according to the mode.
+     * @return The videos kept for the scenario
+     */
+    public static List<Path> finish(Path scenarioDir, boolean failed, Mode mode) {
+        List<Path> videos = videos(scenarioDir);
+        long bytes = size(videos);
+
+        if (mode == Mode.RETAIN_ON_FAILURE && !failed) {
+            deletedCount.addAndGet(videos.size());
+            deletedBytes.addAndGet(bytes);
+            deleter.submit(() -> deleteDirectory(scenarioDir));
+            return List.of();
+        }
+
+        retainedCount.addAndGet(videos.size());
+        retainedBytes.addAndGet(bytes);
+        return videos;
+    }
+
+    /**
+     * Waits (bounded) for pending deletes and returns the run's video disk usage.
+     * Call once at the end of the run.
+     */
+    public static String completeRun() {
+        deleter.shutdown();
+        try {
+            if (!deleter.awaitTermination(30, TimeUnit.SECONDS)) {
+                logger.warn("Video cleanup still running after 30s");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return String.format("%d kept (%s), %d deleted (%s)",
+                retainedCount.get(), formatBytes(retainedBytes.get()),
+                deletedCount.get(), formatBytes(deletedBytes.get()));
+    }
+
+    public static boolean hasRecordings() {
+        return retainedCount.get() + deletedCount.get() > 0;
+    }
+
+    private static void deleteDirectory(Path dir) {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder())
+                    .map(Path::toFile)
+                    .forEach(File::delete);
+            logger.debug("Deleted videos of passed scenario: {}", dir);
+        } catch (IOException e) {
+            logger.warn("Could not delete videos in {}: {}", dir, e.getMessage());
+        }
+    }
+
+    private static long size(List<Path> files) {
+        long total = 0;
+        for (Path file : files) {
+            try {
+                total += Files.size(file);
+            } catch (IOException e) {
+                logger.debug("Could not read size of {}: {}", file, e.getMessage());
+            }
+        }
+        return total;
+    }
+
+    private static String formatBytes(long bytes) {
+        return bytes < 1024 * 1024
+                ? String.format("%.1f KB", bytes / 1024.0)
+                : String.format("%.1f MB", bytes / (1024.0 * 1024));
+    }
+}
@@ -0,0 +1,242 @@
+package utilze;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Screenshot baselines and visual checks.
+ * A baseline is stored as a PNG plus a small .tiles file with its size and tile hashes, so a
+ * check only decodes the new screenshot and compares hashes; the baseline PNG is decoded only
+ * when a tile changed. Baselines are committed with the tests and a normal run never writes to
+ * the baseline directory: a missing one skips the check (or fails it with
+ * visual_missing_baseline=fail). Only -Dvisual_update=true records (or re-records) the checked
+ * baselines. On mismatch, or when the baseline is missing, the
+ * actual screenshot is written to target/visual-diffs, with a diff image on mismatch.
+ *
+ * Settings (BrowserConfig.properties, -D overrides):
+ * - visual_baseline_dir:     where baselines are kept (per environment and browser)
+ * - visual_tile_size:        tile edge in pixels
+ * - visual_color_tolerance:  channel difference (0-255) still counted as the same color
+ * - visual_max_diff_ratio:   share of different pixels that still matches (0.001 = 0.1%)
+ * - visual_missing_baseline: skip or fail a check without baseline
+ */
+public class VisualBaselines {
+
+    private static final Logger logger = LoggerFactory.getLogger(VisualBaselines.class);
+
+    private static final String DIFF_DIR = "target/visual-diffs";
+    private static final int TILES_MAGIC = 0x56544831; // "VTH1"
+
+    private static final AtomicInteger checks = new AtomicInteger();
+    private static final AtomicInteger mismatches = new AtomicInteger();
+    private static final AtomicInteger missing = new AtomicInteger();
+    private static final AtomicInteger recorded = new AtomicInteger();
+
+    private final Path dir;
+    private final VisualComparator comparator;
+    private final boolean update;
+    private final boolean failOnMissing;
+
+    /**
+     * Stored baseline metadata: size and tile hashes.
+     */
+    private record Tiles(int width, int height, int tileSize, long[] hashes) {
+    }
+
+    /**
+     * How a check ended; RECORDED only with visual_update.
+     */
+    public enum Outcome {
+        MATCH, MISMATCH, MISSING, RECORDED
+    }
+
+    /**
+     * Outcome of a check: the comparison (null when no baseline was compared) and written files.
+     */
+    public record Check(String name, Outcome outcome, VisualComparator.Result result, Path baseline, Path actual,
+                        Path diff) {
+
+        public boolean isMatch() {
+            return outcome == Outcome.MATCH || outcome == Outcome.RECORDED;
+        }
+    }
+
+    /**
+     * @param subDir Baselines of one environment and browser, e.g. "demoblaze/chromium"
+     */
+    public VisualBaselines(Properties prop, String subDir) {
+        this.dir = Paths.get(setting(prop, "visual_baseline_dir", "src/test/resources/visual-baselines"), subDir);
+        this.comparator = new VisualComparator(
+                Integer.parseInt(setting(prop, "visual_tile_size", "64")),
+                Integer.parseInt(setting(prop, "visual_color_tolerance", "16")),
+                Double.parseDouble(setting(prop, "visual_max_diff_ratio", "0.001")));
+        this.update = Boolean.parseBoolean(setting(prop, "visual_update", "false"));
+        this.failOnMissing = "fail".equalsIgnoreCase(setting(prop, "visual_missing_baseline", "skip"));
+    }
+
+    /**
+     * Compares a PNG screenshot with the named baseline, or records it with visual_update.
+     * @param ignore Regions (in screenshot pixels) left out of the comparison
+     */
+    public Check check(String name, byte[] png, List<VisualComparator.Region> ignore) {
+        String file = fileName(name);
+        Path baselinePng = dir.resolve(file + ".png");
+        Path baselineTiles = dir.resolve(file + ".tiles");
+        checks.incrementAndGet();
+
+        VisualComparator.Pixels actual = VisualComparator.Pixels.of(decode(png, name));
+        VisualComparator.mask(actual, ignore);
+        long[] hashes = comparator.tileHashes(actual);
+
+        if (update) {
+            write(baselinePng, baselineTiles, png, new Tiles(actual.width(), actual.height(), comparator.getTileSize(), hashes));
+            recorded.incrementAndGet();
+            logger.info("Visual baseline {} recorded: {}", name, baselinePng);
+            return new Check(name, Outcome.RECORDED, null, baselinePng, null, null);
+        }
+        if (!Files.exists(baselinePng)) {
+            missing.incrementAndGet();
+            return new Check(name, Outcome.MISSING, null, baselinePng, writeDiff(file, name, png, null), null);
+        }
+
+        Tiles tiles = readTiles(baselineTiles);
+        if (tiles == null || tiles.tileSize() != comparator.getTileSize()) {
+            // No usable hashes (tile size changed): hash the baseline itself
+            VisualComparator.Pixels baseline = loadBaseline(baselinePng, ignore);
+            tiles = new Tiles(baseline.width(), baseline.height(), comparator.getTileSize(), comparator.tileHashes(baseline));
+        }
+        VisualComparator.Result result = comparator.compare(actual, hashes, tiles.width(), tiles.height(), tiles.hashes(),
+                () -> loadBaseline(baselinePng, ignore));
+        logger.debug("Visual check {}: {}", name, result.describe());
+        if (result.match()) {
+            return new Check(name, Outcome.MATCH, result, baselinePng, null, null);
+        }
+
+        mismatches.incrementAndGet();
+        Path diffPath = result.diff() != null ? Paths.get(DIFF_DIR, file + "-diff.png") : null;
+        return new Check(name, Outcome.MISMATCH, result, baselinePng, writeDiff(file, name, png, result), diffPath);
+    }
+
+    /**
+     * Writes the actual screenshot, and the diff image when there is one, to target/visual-diffs.
+     * @return the actual screenshot's path
+     */
+    private static Path writeDiff(String file, String name, byte[] png, VisualComparator.Result result) {
+        Path actualPath = Paths.get(DIFF_DIR, file + "-actual.png");
+        try {
+            Files.createDirectories(actualPath.getParent());
+            Files.write(actualPath, png);
+            if (result != null && result.diff() != null) {
+                ImageIO.write(result.diff(), "png", Paths.get(DIFF_DIR, file + "-diff.png").toFile());
+            }
+        } catch (IOException e) {
+            logger.warn("Could not write visual diff for {}: {}", name, e.getMessage());
+        }
+        return actualPath;
+    }
+
+    /**
+     * True when a check without baseline fails (visual_missing_baseline=fail) instead of skipping.
+     */
+    public boolean isFailOnMissing() {
+        return failOnMissing;
+    }
+
+    private VisualComparator.Pixels loadBaseline(Path png, List<VisualComparator.Region> ignore) {
+        try {
+            VisualComparator.Pixels pixels = VisualComparator.Pixels.of(decode(Files.readAllBytes(png), png.toString()));
+            VisualComparator.mask(pixels, ignore);
+            return pixels;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read visual baseline " + png, e);
+        }
+    }
+
+    private static BufferedImage decode(byte[] png, String name) {
+        try {
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+            if (image == null) {
+                throw new IllegalArgumentException("Not an image: " + name);
+            }
+            return image;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not decode screenshot " + name, e);
+        }
+    }
+
+    // ==================== STORE ====================
+
+    private static void write(Path png, Path tilesPath, byte[] image, Tiles tiles) {
+        try {
+            Files.createDirectories(png.getParent());
+            Files.write(png, image);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tilesPath)))) {
+                out.writeInt(TILES_MAGIC);
+                out.writeInt(tiles.width());
+                out.writeInt(tiles.height());
+                out.writeInt(tiles.tileSize());
+                out.writeInt(tiles.hashes().length);
+                for (long hash : tiles.hashes()) {
+                    out.writeLong(hash);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write visual baseline " + png, e);
+        }
+    }
+
+    private static Tiles readTiles(Path path) {
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != TILES_MAGIC) {
+                return null;
+            }
+            int width = in.readInt();
+            int height = in.readInt();
+            int tileSize = in.readInt();
+            long[] hashes = new long[in.readInt()];
+            for (int i = 0; i < hashes.length; i++) {
+                hashes[i] = in.readLong();
+            }
+            return new Tiles(width, height, tileSize, hashes);
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable tile hashes {}: {}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    private static String fileName(String name) {
+        return name.trim().toLowerCase().replaceAll("[^a-z0-9]+", "-").replaceAll("(^-|-$)", "");
+    }
+
+    // ==================== SUMMARY ====================
+
+    public static boolean hasChecks() {
+        return checks.get() > 0;
+    }
+
+    /**
+     * Returns e.g. "6 checks, 1 mismatch, 1 missing baseline, 0 baselines recorded"
+     */
+    public static String summary() {
+        return String.format("%d checks, %d mismatch%s, %d missing baseline%s, %d baselines recorded", checks.get(),
+                mismatches.get(), mismatches.get() == 1 ? "" : "es", missing.get(), missing.get() == 1 ? "" : "s",
+                recorded.get());
+    }
+
+    private static String setting(Properties prop, String key, String defaultValue) {
+        return System.getProperty(key, prop.getProperty(key, defaultValue)).trim();
+    }
+}
@@ -0,0 +1,326 @@
+package utilze;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Tile-based image comparison. Both images are cut into square tiles, each tile is hashed
+ * (tiles are processed in parallel across cores) and only tiles whose hashes differ are
+ * compared pixel by pixel, so the baseline's pixels are not even needed when nothing changed.
+ * - Ignore regions are blanked in both images before hashing and comparing.
+ * - A pixel counts as different when a color channel differs by more than the color tolerance
+ *   and it is not anti-aliasing, detected as in pixelmatch (V. Vysniauskas, "Anti-aliased pixel
+ *   and intensity slope detector", 2009): the pixel sits on a high-contrast edge, between a
+ *   darker and a brighter neighbour, and one of those extremes lies in a flat area in both
+ *   images. A shifted layout or changed text still counts.
+ * - Images match when the different pixels stay within the allowed ratio.
+ * A diff image is only built on mismatch.
+ */
+public class VisualComparator {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final int DIFF_COLOR = 0xFFFF0000;
+
+    private final int tileSize;
+    private final int colorTolerance;
+    private final double maxDiffRatio;
+
+    /**
+     * A rectangle in image pixels.
+     */
+    public record Region(int x, int y, int width, int height) {
+
+        /**
+         * Parses "x,y,width,height".
+         */
+        public static Region parse(String value) {
+            String[] parts = value.split(",");
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Invalid region '" + value + "' (expected x,y,width,height)");
+            }
+            return new Region(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()),
+                    Integer.parseInt(parts[2].trim()), Integer.parseInt(parts[3].trim()));
+        }
+    }
+
+    /**
+     * Decoded ARGB pixels, row by row.
+     */
+    public record Pixels(int width, int height, int[] argb) {
+
+        public static Pixels of(BufferedImage image) {
+            BufferedImage argbImage = image;
+            if (image.getType() != BufferedImage.TYPE_INT_ARGB) {
+                argbImage = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_ARGB);
+                Graphics2D graphics = argbImage.createGraphics();
+                graphics.drawImage(image, 0, 0, null);
+                graphics.dispose();
+            }
+            int[] data = ((DataBufferInt) argbImage.getRaster().getDataBuffer()).getData();
+            return new Pixels(image.getWidth(), image.getHeight(), data);
+        }
+    }
+
+    /**
+     * Outcome of a comparison. diff is null when the images match.
+     */
+    public record Result(boolean match, String reason, long diffPixels, int tiles, int changedTiles,
+                         BufferedImage diff, long nanos) {
+
+        /**
+         * Returns e.g. "1240 different pixels in 3 of 480 tiles (4 ms)"
+         */
+        public String describe() {
+            return String.format("%s%d different pixels in %d of %d tiles (%d ms)",
+                    reason == null ? "" : reason + ", ", diffPixels, changedTiles, tiles, nanos / 1_000_000);
+        }
+    }
+
+    public VisualComparator(int tileSize, int colorTolerance, double maxDiffRatio) {
+        if (tileSize < 8) {
+            throw new IllegalArgumentException("Tile size must be at least 8 pixels, was " + tileSize);
+        }
+        this.tileSize = tileSize;
+        this.colorTolerance = colorTolerance;
+        this.maxDiffRatio = maxDiffRatio;
+    }
+
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    // ==================== HASHING ====================
+
+    /**
+     * Blanks the ignore regions (in place).
+     */
+    public static void mask(Pixels pixels, List<Region> ignore) {
+        for (Region region : ignore) {
+            int x0 = Math.max(0, region.x());
+            int x1 = Math.min(pixels.width(), region.x() + region.width());
+            for (int y = Math.max(0, region.y()); y < Math.min(pixels.height(), region.y() + region.height()); y++) {
+                if (x1 > x0) {
+                    Arrays.fill(pixels.argb(), y * pixels.width() + x0, y * pixels.width() + x1, 0);
+                }
+            }
+        }
+    }
+
+    /**
+     * Hashes every tile (FNV-1a over the pixels), in parallel.
+     */
+    public long[] tileHashes(Pixels pixels) {
+        int columns = columns(pixels.width());
+        long[] hashes = new long[columns * rows(pixels.height())];
+        IntStream.range(0, hashes.length).parallel().forEach(tile -> {
+            int x0 = (tile % columns) * tileSize;
+            int y0 = (tile / columns) * tileSize;
+            int x1 = Math.min(pixels.width(), x0 + tileSize);
+            int y1 = Math.min(pixels.height(), y0 + tileSize);
+            long hash = FNV_OFFSET;
+            for (int y = y0; y < y1; y++) {
+                int offset = y * pixels.width();
+                for (int x = x0; x < x1; x++) {
+                    hash = (hash ^ pixels.argb()[offset + x]) * FNV_PRIME;
+                }
+            }
+            hashes[tile] = hash;
+        });
+        return hashes;
+    }
+
+    private int columns(int width) {
+        return (width + tileSize - 1) / tileSize;
+    }
+
+    private int rows(int height) {
+        return (height + tileSize - 1) / tileSize;
+    }
+
+    // ==================== COMPARISON ====================
+
+    /**
+     * Compares an image (ignore regions already masked) with a baseline.
+     * @param actual         The new screenshot
+     * @param actualHashes   Its tile hashes ({@link #tileHashes})
+     * @param baselineHashes The baseline's stored tile hashes (same tile size)
+     * @param baseline       Decodes the masked baseline; only called when a tile hash differs
+     */
+    public Result compare(Pixels actual, long[] actualHashes, int baselineWidth, int baselineHeight,
+                          long[] baselineHashes, Supplier<Pixels> baseline) {
+        long start = System.nanoTime();
+        int tiles = actualHashes.length;
+        if (actual.width() != baselineWidth || actual.height() != baselineHeight) {
+            String reason = String.format("size %dx%d differs from baseline %dx%d", actual.width(), actual.height(),
+                    baselineWidth, baselineHeight);
+            return new Result(false, reason, (long) actual.width() * actual.height(), tiles, tiles, null,
+                    System.nanoTime() - start);
+        }
+
+        int[] changed = IntStream.range(0, tiles).filter(tile -> actualHashes[tile] != baselineHashes[tile]).toArray();
+        if (changed.length == 0) {
+            return new Result(true, null, 0, tiles, 0, null, System.nanoTime() - start);
+        }
+
+        Pixels expected = baseline.get();
+        int columns = columns(actual.width());
+        long[] diffPerTile = new long[changed.length];
+        IntStream.range(0, changed.length).parallel().forEach(i -> {
+            int tile = changed[i];
+            int x0 = (tile % columns) * tileSize;
+            int y0 = (tile / columns) * tileSize;
+            diffPerTile[i] = countDiff(actual, expected, x0, y0,
+                    Math.min(actual.width(), x0 + tileSize), Math.min(actual.height(), y0 + tileSize), null);
+        });
+
+        long diffPixels = 0;
+        int changedTiles = 0;
+        for (long count : diffPerTile) {
+            diffPixels += count;
+            changedTiles += count > 0 ? 1 : 0;
+        }
+        boolean match = diffPixels <= maxDiffRatio * actual.width() * actual.height();
+        BufferedImage diff = match ? null : diffImage(actual, expected, changed, columns);
+        return new Result(match, null, diffPixels, tiles, changedTiles, diff, System.nanoTime() - start);
+    }
+
+    /**
+     * Counts the different pixels of a tile; marks them in diff when given.
+     */
+    private long countDiff(Pixels actual, Pixels expected, int x0, int y0, int x1, int y1, int[] diff) {
+        int width = actual.width();
+        long count = 0;
+        for (int y = y0; y < y1; y++) {
+            for (int x = x0; x < x1; x++) {
+                int index = y * width + x;
+                int a = actual.argb()[index];
+                int e = expected.argb()[index];
+                if (a == e || similar(a, e)) {
+                    continue;
+                }
+                if (isAntiAliased(actual, expected, x, y) || isAntiAliased(expected, actual, x, y)) {
+                    continue;
+                }
+                count++;
+                if (diff != null) {
+                    diff[index] = DIFF_COLOR;
+                }
+            }
+        }
+        return count;
+    }
+
+    private boolean similar(int a, int b) {
+        return Math.abs((a >>> 24) - (b >>> 24)) <= colorTolerance
+                && Math.abs(((a >> 16) & 0xFF) - ((b >> 16) & 0xFF)) <= colorTolerance
+                && Math.abs(((a >> 8) & 0xFF) - ((b >> 8) & 0xFF)) <= colorTolerance
+                && Math.abs((a & 0xFF) - (b & 0xFF)) <= colorTolerance;
+    }
+
+    /**
+     * True when the pixel is anti-aliasing of an edge: it has a darker and a brighter neighbour
+     * (not more than 2 neighbours of its own color), and the darkest or the brightest of them
+     * lies in a flat area, at least 3 identical neighbours, in both images.
+     */
+    private static boolean isAntiAliased(Pixels image, Pixels other, int x, int y) {
+        int width = image.width();
+        int x0 = Math.max(x - 1, 0);
+        int y0 = Math.max(y - 1, 0);
+        int x1 = Math.min(x + 1, width - 1);
+        int y1 = Math.min(y + 1, image.height() - 1);
+        // A pixel on the image border counts as having an identical neighbour
+        int identical = x == x0 || x == x1 || y == y0 || y == y1 ? 1 : 0;
+        double brightness = brightness(image.argb()[y * width + x]);
+        double darkest = 0;
+        double brightest = 0;
+        int darkX = 0;
+        int darkY = 0;
+        int brightX = 0;
+        int brightY = 0;
+        for (int ny = y0; ny <= y1; ny++) {
+            for (int nx = x0; nx <= x1; nx++) {
+                if (nx == x && ny == y) {
+                    continue;
+                }
+                double delta = brightness(image.argb()[ny * width + nx]) - brightness;
+                if (delta == 0) {
+                    if (++identical > 2) {
+                        return false;
+                    }
+                } else if (delta < darkest) {
+                    darkest = delta;
+                    darkX = nx;
+                    darkY = ny;
+                } else if (delta > brightest) {
+                    brightest = delta;
+                    brightX = nx;
+                    brightY = ny;
+                }
+            }
+        }
+        if (darkest == 0 || brightest == 0) {
+            return false; // Not between a darker and a brighter pixel: no edge
+        }
+        return (hasManySiblings(image, darkX, darkY) && hasManySiblings(other, darkX, darkY))
+                || (hasManySiblings(image, brightX, brightY) && hasManySiblings(other, brightX, brightY));
+    }
+
+    /**
+     * True when at least 3 of the pixel's neighbours have exactly its color.
+     */
+    private static boolean hasManySiblings(Pixels image, int x, int y) {
+        int width = image.width();
+        int x0 = Math.max(x - 1, 0);
+        int y0 = Math.max(y - 1, 0);
+        int x1 = Math.min(x + 1, width - 1);
+        int y1 = Math.min(y + 1, image.height() - 1);
+        int color = image.argb()[y * width + x];
+        int identical = x == x0 || x == x1 || y == y0 || y == y1 ? 1 : 0;
+        for (int ny = y0; ny <= y1; ny++) {
+            for (int nx = x0; nx <= x1; nx++) {
+                if ((nx != x || ny != y) && image.argb()[ny * width + nx] == color && ++identical > 2) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Luma (YIQ Y) of a pixel blended over white.
+     */
+    private static double brightness(int argb) {
+        double alpha = (argb >>> 24) / 255.0;
+        double r = 255 + (((argb >> 16) & 0xFF) - 255) * alpha;
+        double g = 255 + (((argb >> 8) & 0xFF) - 255) * alpha;
+        double b = 255 + ((argb & 0xFF) - 255) * alpha;
+        return r * 0.29889531 + g * 0.58662247 + b * 0.11448223;
+    }
+
+    /**
+     * The baseline faded, with different pixels in red.
+     */
+    private BufferedImage diffImage(Pixels actual, Pixels expected, int[] changed, int columns) {
+        BufferedImage image = new BufferedImage(actual.width(), actual.height(), BufferedImage.TYPE_INT_ARGB);
+        int[] diff = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        IntStream.range(0, diff.length).parallel().forEach(i -> {
+            int e = expected.argb()[i];
+            int gray = (((e >> 16) & 0xFF) + ((e >> 8) & 0xFF) + (e & 0xFF)) / 3;
+            int faded = 255 - (255 - gray) / 4;
+            diff[i] = 0xFF000000 | faded << 16 | faded << 8 | faded;
+        });
+        IntStream.of(changed).parallel().forEach(tile -> {
+            int x0 = (tile % columns) * tileSize;
+            int y0 = (tile / columns) * tileSize;
+            countDiff(actual, expected, x0, y0, Math.min(actual.width(), x0 + tileSize),
+                    Math.min(actual.height(), y0 + tileSize), diff);
+        });
+        return image;
+    }
+}
@@ -1,11 +1,14 @@
 package utilze;
 
 import Initialization.FrameWorkInitialization;
+import Initialization.ScenarioContext;
 import com.microsoft.playwright.*;
 import com.microsoft.playwright.assertions.LocatorAssertions;
 import com.microsoft.playwright.options.*;
+import execution.RunEventStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.testng.SkipException;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -24,8 +27,8 @@ public class playwright extends FrameWorkInitialization {
     private static final Logger logger = LoggerFactory.getLogger(playwright.class);
     private static final Random random = new Random();
     
-    // Global variable storage shared across all instances
-    private static final Map<String, Object> variables = new HashMap<>();
+    // Variable storage shared across all instances on the same thread (one per virtual user in load tests)
+    private static final ThreadLocal<Map<String, Object>> variables = ThreadLocal.withInitial(HashMap::new);
 
     // ==================== VARIABLE STORAGE METHODS ====================
 
@@ -35,7 +38,7 @@ public class playwright extends FrameWorkInitialization {
      * @param value The value to store
      */
     public void setVariable(String key, Object value) {
-        variables.put(key, value);
+        variables.get().put(key, value);
         logger.debug("Stored variable: {} = {}", key, value);
     }
 
@@ -45,7 +48,7 @@ public class playwright extends FrameWorkInitialization {
      * @return The value as Object, or null if not found
      */
     public Object getVariable(String key) {
-        Object value = variables.get(key);
+        Object value = variables.get().get(key);
         logger.debug("Retrieved variable: {} = {}", key, value);
         return value;
     }
@@ -56,7 +59,7 @@ public class playwright extends FrameWorkInitialization {
      * @return The value as String, or empty string if null
      */
     public String getVariableAsString(String key) {
-        Object value = variables.get(key);
+        Object value = variables.get().get(key);
         return value != null ? value.toString() : "";
     }
 
@@ -68,6 +71,7 @@ public class playwright extends FrameWorkInitialization {
     private void internalClick(Locator locator, String description) {
         try {
             logger.debug("Clicking: {}", description);
+            PageTimer.markActionIfActive("click " + description);
             locator.click();
             logger.debug("Clicked successfully: {}", description);
         } catch (TimeoutError e) {
@@ -511,12 +515,22 @@ public class playwright extends FrameWorkInitialization {
     }
 
     /**
-     * Waits for all network activity to stop (no requests for 500ms).
-     * Most reliable wait. Use after API calls or dynamic content loading.
+     * Waits until no relevant request is in flight for network_idle_window ms.
+     * Ignores analytics beacons and long-polling (see {@link NetworkTracker}), so it settles
+     * faster than NETWORKIDLE. Use after API calls or dynamic content loading.
      */
     public void waitForNetworkIdle() {
         logger.debug("Waiting for network idle");
-        getPage().waitForLoadState(LoadState.NETWORKIDLE);
+        NetworkTracker.attach(getPage(), getProperties()).waitForQuiescence();
+    }
+
+    /**
+     * Waits until no relevant request is in flight for the given idle window.
+     * @param idleWindowMs Quiet time in ms before the network counts as idle
+     */
+    public void waitForNetworkIdle(int idleWindowMs) {
+        logger.debug("Waiting for network idle ({}ms window)", idleWindowMs);
+        NetworkTracker.attach(getPage(), getProperties()).waitForQuiescence(idleWindowMs);
     }
 
     // ==================== SCREENSHOT METHODS ====================
@@ -526,12 +540,22 @@ public class playwright extends FrameWorkInitialization {
      * File path must include extension (.png, .jpg).
      */
     public void takeScreenshot(String filePath) {
+        logger.debug("Taking screenshot: {}", filePath);
+        takeScreenshot(new Page.ScreenshotOptions().setPath(Paths.get(filePath)));
+        logger.info("Screenshot saved: {}", filePath);
+    }
+
+    /**
+     * Takes screenshot with the given options (full page, masks, clip, path...). Throws if fails.
+     * @return The image bytes (PNG unless another type is set)
+     */
+    public byte[] takeScreenshot(Page.ScreenshotOptions options) {
         try {
-            logger.debug("Taking screenshot: {}", filePath);
-            getPage().screenshot(new Page.ScreenshotOptions().setPath(Paths.get(filePath)));
-            logger.info("Screenshot saved: {}", filePath);
+            return getPage().screenshot(options);
         } catch (PlaywrightException e) {
-            String error = String.format("Failed to save screenshot to: %s", filePath);
+            String error = options.path != null
+                    ? String.format("Failed to save screenshot to: %s", options.path)
+                    : "Failed to take screenshot";
             logger.error(error, e);
             throw new RuntimeException(error, e);
         }
@@ -550,6 +574,55 @@ public class playwright extends FrameWorkInitialization {
         }
     }
 
+    // ==================== VISUAL CHECKS ====================
+
+    /**
+     * Compares a full-page screenshot with the named baseline of the current environment and
+     * browser; the first run records the baseline. Throws if the page looks different, with the
+     * actual screenshot and a diff image written to target/visual-diffs.
+     * @param name          Baseline name, e.g. "DemoBlaze cart page"
+     * @param maskSelectors Elements covered before the screenshot (dynamic content)
+     * @param ignore        Regions in page pixels left out of the comparison
+     */
+    public void assertScreenshotMatches(String name, List<String> maskSelectors, List<VisualComparator.Region> ignore) {
+        Page page = getPage();
+        List<Locator> masks = new ArrayList<>();
+        maskSelectors.forEach(selector -> masks.add(page.locator(selector)));
+        byte[] png = takeScreenshot(new Page.ScreenshotOptions()
+                .setFullPage(true)
+                .setAnimations(ScreenshotAnimations.DISABLED)
+                .setCaret(ScreenshotCaret.HIDE)
+                .setMask(masks));
+
+        VisualBaselines.Check check = getVisualBaselines().check(name, png, ignore);
+        if (check.outcome() == VisualBaselines.Outcome.RECORDED) {
+            return;
+        }
+        if (check.outcome() == VisualBaselines.Outcome.MISSING) {
+            String error = String.format("No visual baseline '%s' at %s (actual: %s). Record it with "
+                    + "-Dvisual_update=true on the environment and browser it is for, and commit it", name,
+                    check.baseline(), check.actual());
+            if (getVisualBaselines().isFailOnMissing()) {
+                logger.error(error);
+                throw new AssertionError(error);
+            }
+            // Skipped, not failed: a baseline nobody recorded yet says nothing about the page
+            logger.warn(error);
+            throw new SkipException(error);
+        }
+        if (!check.isMatch()) {
+            String error = String.format("Page does not look like baseline '%s': %s (actual: %s, diff: %s)",
+                    name, check.result().describe(), check.actual(), check.diff());
+            logger.error(error);
+            throw new AssertionError(error);
+        }
+        logger.info("Visual check '{}' passed: {}", name, check.result().describe());
+    }
+
+    public void assertScreenshotMatches(String name) {
+        assertScreenshotMatches(name, List.of(), List.of());
+    }
+
     // ==================== FILE UPLOAD ====================
 
     /**
@@ -596,6 +669,8 @@ public class playwright extends FrameWorkInitialization {
             throw new IllegalArgumentException("URL cannot be null or empty");
         }
 
+        cancelPendingNavigation();
+
         int attempt = 0;
         Exception lastException = null;
 
@@ -603,8 +678,10 @@ public class playwright extends FrameWorkInitialization {
             try {
                 attempt++;
                 logger.info("Navigating to: {} (attempt {}/{})", url, attempt, maxRetries);
+                PageTimer.markActionIfActive("navigate " + url);
                 getPage().navigate(url);
                 logger.info("Navigation successful: {}", url);
+                capturePerformance("navigate " + url);
                 return;
             } catch (PlaywrightException e) {
                 lastException = e;
@@ -626,6 +703,30 @@ public class playwright extends FrameWorkInitialization {
         throw new AssertionError(error, lastException);
     }
 
+    /**
+     * Performs the deferred landing navigation, marking it as timing start, and records its performance.
+     */
+    @Override
+    protected void navigateToLanding(String url) {
+        PageTimer.markActionIfActive("navigate " + url);
+        super.navigateToLanding(url);
+        capturePerformance("navigate " + url);
+    }
+
+    /**
+     * Records page performance metrics (timings, LCP, CLS, transferred bytes) for the current
+     * step and checks them against the environment's budgets. Called after every navigation;
+     * call it after key interactions too. Disabled with performance_metrics=false.
+     * @param label What just happened, e.g. "sign in"
+     */
+    public void capturePerformance(String label) {
+        if (!ScenarioContext.isActive() || !Boolean.parseBoolean(setting("performance_metrics", "true"))) {
+            return;
+        }
+        ScenarioContext.get(PagePerformance.class)
+                .capture(getPage(), RunEventStream.currentStep(), label, getThrottling());
+    }
+
     // ==================== SELECT/DROPDOWN ====================
 
     /**
@@ -0,0 +1,117 @@
+package hooks;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import config.Settings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Local static web server for the fixture site in src/test/resources/fixtures, a copy of the
+ * DemoBlaze shop structure. Lets scenarios and load tests run without hitting a public site,
+ * so results measure the framework and browsers rather than somebody else's server.
+ *
+ * Started from Hooks.beforeAll when env=fixture (or -Dfixture_server=true), on the port of Settings.Url.
+ * Settings (system properties):
+ *   fixture.latency_ms  artificial delay per response (default 0)
+ *   fixture.threads     request handler threads (default 16)
+ */
+public class FixtureServer {
+
+    private static final Logger logger = LoggerFactory.getLogger(FixtureServer.class);
+
+    private static final Path ROOT = Paths.get("src/test/resources/fixtures");
+    private static final int DEFAULT_THREADS = 16;
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+            "html", "text/html; charset=utf-8",
+            "js", "application/javascript",
+            "css", "text/css",
+            "json", "application/json",
+            "png", "image/png",
+            "jpg", "image/jpeg");
+
+    private static HttpServer server;
+    private static ExecutorService executor;
+
+    private FixtureServer() {
+    }
+
+    /**
+     * Starts the server when the fixture environment is selected. Safe to call repeatedly.
+     */
+    public static synchronized void startIfConfigured() {
+        if (server != null) {
+            return;
+        }
+        if (!"fixture".equals(System.getProperty("env")) && !Boolean.getBoolean("fixture_server")) {
+            return;
+        }
+        URI url = URI.create(Settings.Url);
+        start(url.getPort() > 0 ? url.getPort() : 80);
+    }
+
+    public static synchronized void start(int port) {
+        if (server != null) {
+            return;
+        }
+        long latency = Long.getLong("fixture.latency_ms", 0);
+        try {
+            server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not start fixture server on port " + port + ": " + e.getMessage(), e);
+        }
+        executor = Executors.newFixedThreadPool(Integer.getInteger("fixture.threads", DEFAULT_THREADS));
+        server.setExecutor(executor);
+        server.createContext("/", exchange -> serve(exchange, latency));
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(FixtureServer::stop, "fixture-server-stop"));
+        logger.info("Fixture server serving {} on http://localhost:{}/ (latency {}ms)", ROOT, port, latency);
+    }
+
+    public static synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+        server.stop(0);
+        executor.shutdownNow();
+        server = null;
+        executor = null;
+    }
+
+    private static void serve(HttpExchange exchange, long latency) throws IOException {
+        try (exchange) {
+            if (latency > 0) {
+                Thread.sleep(latency);
+            }
+            String path = exchange.getRequestURI().getPath();
+            Path file = ROOT.resolve(path.equals("/") ? "index.html" : path.substring(1)).normalize();
+            if (!file.startsWith(ROOT) || !Files.isRegularFile(file)) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            byte[] body = Files.readAllBytes(file);
+            String name = file.getFileName().toString();
+            String extension = name.substring(name.lastIndexOf('.') + 1);
+            exchange.getResponseHeaders().set("Content-Type",
+                    CONTENT_TYPES.getOrDefault(extension, "application/octet-stream"));
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
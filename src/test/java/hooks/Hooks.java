@@ -1,13 +1,34 @@
 package hooks;
 
+import Initialization.ContextReset;
 import Initialization.FrameWorkInitialization;
+import Initialization.ScenarioContext;
 import config.ConfigReader;
 import config.Settings;
+import config.StartupTelemetry;
+import execution.AdaptiveConcurrency;
+import execution.ExcelRowPickle;
+import execution.FeatureIndex;
+import execution.LoadTest;
+import execution.RerunManifest;
+import execution.RunEventStream;
+import execution.ScenarioScheduler;
+import execution.ScenarioTimingStore;
 import io.cucumber.java.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import utilze.ExcelData;
+import utilze.MemoryGrowth;
+import utilze.NetworkTracker;
+import utilze.NetworkUsage;
+import utilze.PagePerformance;
+import utilze.ReportRotation;
+import utilze.ResourceMonitor;
+import utilze.ScenarioLogBuffer;
+import utilze.TimingSeries;
+import utilze.VideoArtifacts;
+import utilze.VisualBaselines;
 
-import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.file.Files;
@@ -15,7 +36,6 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Cucumber hooks with clean, minimal logging.
@@ -25,6 +45,8 @@ public class Hooks {
     private static final Logger logger = LoggerFactory.getLogger(Hooks.class);
     private FrameWorkInitialization FM;
     private long scenarioStartTime;
+    private long stepStartTime;
+    private String scenarioId;
 
     // Tracking
 
@@ -35,13 +57,14 @@ public class Hooks {
     // Directories
     private static final String SCREENSHOTS_DIR = "target/screenshots";
 
-    // Cache for feature tags (URI -> Set of tags)
-    private static final Map<String, Set<String>> featureTagsCache = new HashMap<>();
+    // Suite wall-clock start, used to report the actual makespan
+    private static long suiteStartTime;
 
     // ==================== BEFORE ALL ====================
 
     @BeforeAll
     public static void beforeAll() throws IOException {
+        suiteStartTime = System.currentTimeMillis();
         Properties props = new Properties();
         System.out.println("\n" + SEPARATOR);
         System.out.println("TEST SUITE STARTED");
@@ -68,8 +91,17 @@ public class Hooks {
             throw new RuntimeException("Setup failed", e);
         }
 
-        // Clean old reports
-        cleanReports();
+        // Sample driver and browser processes per scenario (resource_monitor)
+        ResourceMonitor.configure(props);
+
+        // Serve the local fixture site when env=fixture
+        FixtureServer.startIfConfigured();
+
+        // Parse the feature files once, before any scenario queries them
+        FeatureIndex.getInstance();
+
+        // Rotate old reports aside, deleted in the background
+        cleanReports(props);
 
         // Create directories
         createDirectories();
@@ -80,9 +112,17 @@ public class Hooks {
 
     @Before
     public void setup(Scenario scenario) throws IOException {
+        StartupTelemetry.recordJvmToFirstScenario();
         scenarioStartTime = System.currentTimeMillis();
+        scenarioId = ExcelRowPickle.currentScenarioId(
+                ScenarioTimingStore.scenarioId(scenario.getUri(), scenario.getLine()));
+        // Load mode repeats scenarios on many threads: no retries to track
+        int attempt = LoadTest.isEnabled() ? 1 : RerunManifest.getInstance().startAttempt(scenarioId);
+        ScenarioLogBuffer.begin(scenarioId);
+        NetworkUsage.begin(scenarioId);
+        ResourceMonitor.beginScenario(scenarioId);
 
-        System.out.println("\n▶ Starting: " + scenario.getName());
+        System.out.println("\n▶ Starting: " + scenario.getName() + (attempt > 1 ? " (retry " + (attempt - 1) + ")" : ""));
 
         // Get only scenario-specific tags (exclude feature tags)
         Collection<String> scenarioTags = getScenarioOnlyTags(scenario);
@@ -91,8 +131,17 @@ public class Hooks {
         }
 
         try {
-            FM = new FrameWorkInitialization();
+            FM = ScenarioContext.get(FrameWorkInitialization.class);
+            FM.setScenarioTags(scenario.getSourceTagNames());
+            FM.setArtifactName(sanitize(scenario.getName()) + "_L" + scenario.getLine() + "_" + timestamp());
             FM.setUp();
+            if (FM.getThrottling() != null) {
+                System.out.println("  Throttling: " + FM.getThrottling());
+                scenario.log("Throttling: " + FM.getThrottling());
+            }
+            // No sample while the landing navigation is still deferred (about:blank)
+            ScenarioContext.get(MemoryGrowth.class).sample("start");
+            stepStartTime = System.nanoTime();
         } catch (Exception e) {
             System.out.println("✗ Setup failed: " + e.getMessage());
             captureScreenshotOnError(scenario, "setup_failed");
@@ -100,11 +149,33 @@ public class Hooks {
         }
     }
 
+    // ==================== AFTER STEP ====================
+
+    @AfterStep
+    public void afterStep(Scenario scenario) {
+        // Step latency drives the adaptive worker count (-Dworkers=auto); taken before the
+        // memory sample so the controller does not scale on the cost of monitoring
+        double stepMs = (System.nanoTime() - stepStartTime) / 1_000_000.0;
+        String step = RunEventStream.currentStep();
+        AdaptiveConcurrency adaptive = AdaptiveConcurrency.getInstance();
+        if (adaptive != null) {
+            adaptive.recordStep(step, stepMs);
+        }
+
+        MemoryGrowth memory = ScenarioContext.get(MemoryGrowth.class);
+        memory.sample(step != null ? step : "step " + memory.getSampleCount());
+        stepStartTime = System.nanoTime();
+    }
+
     // ==================== AFTER SCENARIO ====================
 
     @After
     public void teardown(Scenario scenario) {
         long duration = System.currentTimeMillis() - scenarioStartTime;
+        if (!LoadTest.isEnabled()) {
+            // Durations under load would skew the scheduling of normal runs
+            ScenarioTimingStore.getInstance().record(scenarioId, duration);
+        }
 
         try {
             // Handle result
@@ -112,10 +183,26 @@ public class Hooks {
             if (scenario.isFailed()) {
                 System.out.println("✗ FAILED: " + scenario.getName() + " (" + formatTime(duration) + ")");
                 captureFailureArtifacts(scenario);
+                attachDebugLog(scenario);
             } else {
                 System.out.println("✓ PASSED: " + scenario.getName() + " (" + formatTime(duration) + ")");
             }
 
+            attachPerformanceMetrics(scenario);
+            attachNetworkUsage(scenario);
+            attachMemoryGrowth(scenario);
+
+            // Classify retries as flaky or consistently failing
+            RerunManifest.Outcome outcome = LoadTest.isEnabled() ? null
+                    : RerunManifest.getInstance().recordResult(scenarioId, scenario.isFailed());
+            if (outcome == RerunManifest.Outcome.FLAKY || outcome == RerunManifest.Outcome.CONSISTENTLY_FAILING) {
+                String label = outcome == RerunManifest.Outcome.FLAKY ? "flaky" : "consistently-failing";
+                System.out.println("  Retry result: " + label);
+                scenario.log("Retry result: " + label + " after "
+                        + RerunManifest.getInstance().getAttempt(scenarioId) + " attempts");
+                io.qameta.allure.Allure.label("tag", label);
+            }
+
             // Save trace on failure
             if (FM != null && FM.getContext() != null) {
                 String enableTracing = FM.getProperties().getProperty("enable_tracing", "false");
@@ -140,6 +227,9 @@ public class Hooks {
             logger.error("Teardown error: {}", e.getMessage());
         } finally {
             cleanup();
+            reportResourceUsage(scenario);
+            handleVideo(scenario);
+            ScenarioLogBuffer.end(scenarioId);
         }
     }
 
@@ -149,15 +239,94 @@ public class Hooks {
     public static void afterAll() {
         // Final cleanup
         try {
-            new FrameWorkInitialization().shutdownAll();
+            FrameWorkInitialization.shutdownAllThreads();
         } catch (Exception e) {
             logger.warn("Cleanup warning: {}", e.getMessage());
         }
 
+        // Persist timings for the next run's scheduling, and failures for rerun mode
+        RerunManifest rerun = RerunManifest.getInstance();
+        if (!LoadTest.isEnabled()) {
+            ScenarioTimingStore.getInstance().save();
+            rerun.save();
+            NetworkUsage.saveBaseline();
+        }
+        NetworkUsage.writeReport();
+        ResourceMonitor.writeReport();
+        AdaptiveConcurrency adaptive = AdaptiveConcurrency.getInstance();
+        if (adaptive != null) {
+            adaptive.writeReport();
+        }
+
         // Print Summary
         System.out.println("\n" + SEPARATOR);
         System.out.println("EXECUTION SUMMARY");
         System.out.println(SEPARATOR);
+        ScenarioScheduler.Plan plan = ScenarioScheduler.getLastPlan();
+        if (plan != null) {
+            long actual = System.currentTimeMillis() - suiteStartTime;
+            System.out.println("Scenarios       : " + plan.scheduled() + "/" + plan.total()
+                    + " on this shard (" + plan.unknown() + " without history)");
+            System.out.println("Makespan        : predicted " + formatTime(plan.predictedMakespanMs())
+                    + " | actual " + formatTime(actual)
+                    + " | slowest shard predicted " + formatTime(plan.predictedSlowestShardMs()));
+        }
+        if (adaptive != null) {
+            System.out.println("Workers         : " + adaptive.summary());
+        }
+        ReportRotation.awaitCompletion(30000);
+        ExcelData.closeCursors();
+        if (VideoArtifacts.hasRecordings()) {
+            System.out.println("Videos          : " + VideoArtifacts.completeRun());
+        }
+        System.out.println("Navigations     : " + FrameWorkInitialization.navigationSummary());
+        if (ContextReset.hasResets()) {
+            System.out.println("Context Reuse   : " + ContextReset.summary());
+        }
+        if (NetworkTracker.hasWaits()) {
+            System.out.println("Network Waits   : " + NetworkTracker.summary());
+        }
+        if (PagePerformance.hasSamples()) {
+            System.out.println("Performance     : " + PagePerformance.summary());
+        }
+        if (NetworkUsage.hasRequests()) {
+            System.out.println("Network Usage   : " + NetworkUsage.summary());
+            for (String line : NetworkUsage.heaviestResources(5)) {
+                System.out.println("Heaviest        : " + line);
+            }
+            for (String line : NetworkUsage.heaviestScenarios(3)) {
+                System.out.println("Heaviest        : " + line);
+            }
+            for (String line : NetworkUsage.regressions()) {
+                System.out.println("Page Weight     : " + line);
+            }
+        }
+        for (String line : ResourceMonitor.summary()) {
+            System.out.println("Resources       : " + line);
+        }
+        if (MemoryGrowth.hasSamples()) {
+            System.out.println("Memory Growth   : " + MemoryGrowth.summary());
+            for (String line : MemoryGrowth.getFlaggedScenarios()) {
+                System.out.println("Growing         : " + line);
+            }
+        }
+        if (VisualBaselines.hasChecks()) {
+            System.out.println("Visual          : " + VisualBaselines.summary());
+        }
+        for (String line : TimingSeries.summary()) {
+            System.out.println("Timing          : " + line);
+        }
+        StartupTelemetry.save();
+        for (String line : StartupTelemetry.summary()) {
+            System.out.println("Startup         : " + line);
+        }
+        if (!rerun.getFlaky().isEmpty()) {
+            System.out.println("Flaky           : " + rerun.getFlaky());
+        }
+        if (!rerun.getFailed().isEmpty()) {
+            System.out.println("Failed          : " + rerun.getFailed());
+            System.out.println("Rerun Command   : mvn test -Drerun=true -Denv=" + System.getProperty("env"));
+        }
         String reportPath = Paths
                 .get(System.getProperty("user.dir"), "target/cucumber-html-reports/overview-features.html").toUri()
                 .toString();
@@ -169,153 +338,133 @@ public class Hooks {
     // ==================== DYNAMIC TAG FILTERING ====================
 
     /**
-     * Gets only scenario-specific tags by reading the feature file dynamically.
+     * Gets only scenario-specific tags from the feature index.
      * Excludes tags that appear at the Feature level.
      */
     private Collection<String> getScenarioOnlyTags(Scenario scenario) {
-        Collection<String> allTags = scenario.getSourceTagNames();
+        FeatureIndex.ScenarioEntry entry = FeatureIndex.getInstance().getScenario(scenario.getUri(), scenario.getLine());
+        if (entry == null) {
+            logger.debug("Scenario not in feature index, showing all tags: {}", scenarioId);
+            return scenario.getSourceTagNames(); // Fallback: show all tags
+        }
+        return entry.scenarioTags();
+    }
 
-        if (allTags.isEmpty()) {
-            return allTags;
+    // ==================== HELPERS ====================
+
+    /**
+     * Captures screenshot and page info on failure.
+     */
+    private void captureFailureArtifacts(Scenario scenario) {
+        if (FM == null || FM.getCurrentPage() == null) {
+            System.out.println("  Cannot capture screenshot - page not available");
+            return;
         }
 
         try {
-            // Get feature file URI
-            String featureUri = scenario.getUri().toString();
-
-            // Get feature-level tags from the file
-            Set<String> featureTags = getFeatureLevelTags(featureUri);
+            // Screenshot
+            byte[] screenshot = FM.getCurrentPage().screenshot();
+            String fileName = sanitize(scenario.getName()) + "_" + timestamp() + ".png";
+            Path path = Paths.get(SCREENSHOTS_DIR, fileName);
+            Files.write(path, screenshot);
+            scenario.attach(screenshot, "image/png", "Failed Screenshot");
+            System.out.println("  Screenshot: " + fileName);
 
-            // Filter out feature-level tags
-            return allTags.stream()
-                    .filter(tag -> !featureTags.contains(tag))
-                    .collect(Collectors.toList());
+            // Current URL
+            String url = FM.getCurrentPage().url();
+            System.out.println("  URL: " + url);
 
         } catch (Exception e) {
-            logger.debug("Could not filter tags, showing all: {}", e.getMessage());
-            return allTags; // Fallback: show all tags
+            System.out.println("  Screenshot failed: " + e.getMessage());
         }
     }
 
     /**
-     * Extracts feature-level tags by parsing the feature file.
-     * Uses caching to avoid repeated file reads.
+     * Attaches the scenario's buffered DEBUG log to the report.
      */
-    private Set<String> getFeatureLevelTags(String featureUri) {
-        // Check cache first
-        if (featureTagsCache.containsKey(featureUri)) {
-            return featureTagsCache.get(featureUri);
+    private void attachDebugLog(Scenario scenario) {
+        String log = ScenarioLogBuffer.dump(scenarioId);
+        if (!log.isEmpty()) {
+            scenario.attach(log, "text/plain", "Debug Log");
         }
+    }
 
-        Set<String> featureTags = new HashSet<>();
-
-        try {
-            // Convert URI to file path
-            Path featureFile = getFeatureFilePath(featureUri);
-
-            if (featureFile == null || !Files.exists(featureFile)) {
-                logger.debug("Feature file not found: {}", featureUri);
-                return featureTags;
-            }
-
-            // Read and parse feature file
-            List<String> lines = Files.readAllLines(featureFile);
-
-            for (String line : lines) {
-                String trimmed = line.trim();
-
-                // Stop when we hit the Feature: keyword
-                if (trimmed.startsWith("Feature:")) {
-                    break;
-                }
-
-                // Collect tags before Feature: keyword (these are feature-level tags)
-                if (trimmed.startsWith("@")) {
-                    // Split multiple tags on the same line: @tag1 @tag2 @tag3
-                    String[] tags = trimmed.split("\\s+");
-                    for (String tag : tags) {
-                        if (tag.startsWith("@")) {
-                            featureTags.add(tag);
-                        }
-                    }
-                }
-            }
-
-            // Cache the result
-            featureTagsCache.put(featureUri, featureTags);
-            logger.debug("Feature tags for {}: {}", featureUri, featureTags);
-
-        } catch (Exception e) {
-            logger.debug("Could not read feature file: {}", e.getMessage());
+    /**
+     * Attaches the scenario's page performance samples and lists budget violations.
+     */
+    private void attachPerformanceMetrics(Scenario scenario) {
+        PagePerformance performance = ScenarioContext.get(PagePerformance.class);
+        if (performance.getSamples().isEmpty()) {
+            return;
+        }
+        scenario.attach(performance.toJson(), "application/json", "Performance Metrics");
+        for (String violation : performance.getViolations()) {
+            System.out.println("  Budget exceeded: " + violation);
         }
-
-        return featureTags;
     }
 
     /**
-     * Converts feature URI to actual file path.
-     * Handles different URI formats (file:, classpath:, etc.)
+     * Attaches the scenario's heap, DOM node and listener curves and flags monotonic growth.
      */
-    private Path getFeatureFilePath(String featureUri) {
-        try {
-            // Remove URI prefixes
-            String filePath = featureUri
-                    .replace("file:", "")
-                    .replace("classpath:", "");
-
-            // Try direct path first
-            Path path = Paths.get(filePath);
-            if (Files.exists(path)) {
-                return path;
-            }
-
-            // Try src/test/resources path
-            path = Paths.get("src/test/resources", filePath);
-            if (Files.exists(path)) {
-                return path;
-            }
+    private void attachMemoryGrowth(Scenario scenario) {
+        MemoryGrowth memory = ScenarioContext.get(MemoryGrowth.class);
+        List<String> growth = memory.finish(scenarioId);
+        if (memory.getSampleCount() < 2) {
+            return;
+        }
+        scenario.attach(memory.toJson(), "application/json", "Memory Growth");
+        for (String line : growth) {
+            System.out.println("  Memory growing: " + line);
+        }
+    }
 
-            // Try relative to project root
-            path = Paths.get(System.getProperty("user.dir"), filePath);
-            if (Files.exists(path)) {
-                return path;
+    /**
+     * Logs the driver and browser resources the scenario used (after the browser closed).
+     */
+    private void reportResourceUsage(Scenario scenario) {
+        ResourceMonitor.Usage usage = ResourceMonitor.endScenario();
+        if (usage != null) {
+            System.out.println("  Resources: " + usage.describe());
+            scenario.log("Resources: " + usage.describe());
+            AdaptiveConcurrency adaptive = AdaptiveConcurrency.getInstance();
+            if (adaptive != null) {
+                adaptive.recordUsage(usage);
             }
-
-            logger.debug("Could not find feature file for URI: {}", featureUri);
-            return null;
-
-        } catch (Exception e) {
-            logger.debug("Error resolving feature file path: {}", e.getMessage());
-            return null;
         }
     }
 
-    // ==================== HELPERS ====================
-
     /**
-     * Captures screenshot and page info on failure.
+     * Attaches what the scenario downloaded and flags page-weight growth.
      */
-    private void captureFailureArtifacts(Scenario scenario) {
-        if (FM == null || FM.getPage() == null) {
-            System.out.println("  Cannot capture screenshot - page not available");
+    private void attachNetworkUsage(Scenario scenario) {
+        NetworkUsage usage = NetworkUsage.end();
+        if (usage == null) {
             return;
         }
+        scenario.attach(usage.toJson(), "application/json", "Network Usage");
+        if (usage.isRegression()) {
+            System.out.println("  Page weight grew: " + usage.getTotal().describe());
+        }
+    }
 
-        try {
-            // Screenshot
-            byte[] screenshot = FM.getPage().screenshot();
-            String fileName = sanitize(scenario.getName()) + "_" + timestamp() + ".png";
-            Path path = Paths.get(SCREENSHOTS_DIR, fileName);
-            Files.write(path, screenshot);
-            scenario.attach(screenshot, "image/png", "Failed Screenshot");
-            System.out.println("  Screenshot: " + fileName);
-
-            // Current URL
-            String url = FM.getPage().url();
-            System.out.println("  URL: " + url);
-
-        } catch (Exception e) {
-            System.out.println("  Screenshot failed: " + e.getMessage());
+    /**
+     * Keeps or deletes the scenario's video (after the context is closed) and attaches kept
+     * videos of failed scenarios to the Allure report.
+     */
+    private void handleVideo(Scenario scenario) {
+        if (FM == null || FM.getVideoDir() == null) {
+            return;
+        }
+        VideoArtifacts.Mode mode = VideoArtifacts.getMode(FM.getProperties());
+        for (Path video : VideoArtifacts.finish(FM.getVideoDir(), scenario.isFailed(), mode)) {
+            if (scenario.isFailed()) {
+                try (java.io.InputStream in = Files.newInputStream(video)) {
+                    io.qameta.allure.Allure.addAttachment("Video", "video/webm", in, ".webm");
+                    System.out.println("  Video: " + video);
+                } catch (IOException e) {
+                    logger.warn("Could not attach video {}: {}", video, e.getMessage());
+                }
+            }
         }
     }
 
@@ -324,8 +473,8 @@ public class Hooks {
      */
     private void captureScreenshotOnError(Scenario scenario, String prefix) {
         try {
-            if (FM != null && FM.getPage() != null) {
-                byte[] screenshot = FM.getPage().screenshot();
+            if (FM != null && FM.getCurrentPage() != null) {
+                byte[] screenshot = FM.getCurrentPage().screenshot();
                 scenario.attach(screenshot, "image/png", prefix + "_" + scenario.getName());
                 System.out.println("  Screenshot captured: " + prefix);
             }
@@ -374,34 +523,30 @@ public class Hooks {
     }
 
     /**
-     * Cleans Allure results and target artifacts (reports, traces, screenshots).
+     * Rotates Allure results and target artifacts (reports, traces, screenshots, videos) aside.
+     * Old runs are deleted in the background; the last report_history_runs runs are kept,
+     * up to report_history_max_mb for all report directories together.
+     * Priority: Command line (-Dreport_history_runs=3) > BrowserConfig.properties > Default (0)
      */
-    private static void cleanReports() {
-        String[] reportPaths = {
+    private static void cleanReports(Properties props) {
+        List<String> reportPaths = List.of(
                 "allure-results",
                 "allure-report",
                 "target/screenshots",
                 "target/traces",
+                "target/videos",
                 "target/surefire-reports"
-        };
-
-        for (String dir : reportPaths) {
-            Path path = Paths.get(dir);
-            if (Files.exists(path)) {
-                try {
-                    if (Files.isDirectory(path)) {
-                        Files.walk(path)
-                                .sorted(Comparator.reverseOrder())
-                                .map(Path::toFile)
-                                .forEach(File::delete);
-                    } else {
-                        Files.delete(path);
-                    }
-                } catch (IOException e) {
-                    logger.warn("Cleanup failed for {}: {}", dir, e.getMessage());
-                }
-            }
-        }
+        );
+
+        int keepRuns = Integer.parseInt(System.getProperty("report_history_runs",
+                props.getProperty("report_history_runs", "0")).trim());
+        long maxHistoryMb = Long.parseLong(System.getProperty("report_history_max_mb",
+                props.getProperty("report_history_max_mb", "500")).trim());
+
+        long start = System.currentTimeMillis();
+        ReportRotation.rotate(reportPaths, keepRuns, maxHistoryMb * 1024 * 1024);
+        logger.info("Report directories rotated in {}ms (keeping {} previous runs)",
+                System.currentTimeMillis() - start, keepRuns);
     }
 
     private static String timestamp() {
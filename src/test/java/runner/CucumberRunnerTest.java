@@ -1,7 +1,23 @@
 package runner;
 
-import io.cucumber.testng.AbstractTestNGCucumberTests;
-import io.cucumber.testng.CucumberOptions;
+import config.frameWorkConfig;
+import execution.AdaptiveConcurrency;
+import execution.ExcelRowPickle;
+import execution.FeatureIndex;
+import execution.ImpactSelector;
+import execution.RerunManifest;
+import execution.ScenarioRetryAnalyzer;
+import execution.ScenarioScheduler;
+import execution.ScenarioTimingStore;
+import io.cucumber.testng.*;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 
 @CucumberOptions(
         features = "src/test/resources/features",
@@ -10,10 +26,97 @@ import io.cucumber.testng.CucumberOptions;
                 "pretty",
                 "html:target/cucumber-reports.html",
                 "json:target/cucumber.json",
-                "io.qameta.allure.cucumber7jvm.AllureCucumber7Jvm"
+                "io.qameta.allure.cucumber7jvm.AllureCucumber7Jvm",
+                "execution.RunEventStream:target/run-events.ndjson"
         },
-        monochrome = true
+        monochrome = true,
+        objectFactory = ScenarioObjectFactory.class
 )
 public class CucumberRunnerTest extends AbstractTestNGCucumberTests {
-    // Empty class
+
+    static {
+        // Rerun mode (-Drerun=true): execute exactly the failed pickles of the previous run
+        if (RerunManifest.isRerunMode()) {
+            Path manifest = RerunManifest.getManifestPath();
+            if (!Files.exists(manifest)) {
+                throw new IllegalStateException("Rerun mode enabled but no rerun manifest found: " + manifest);
+            }
+            System.setProperty("cucumber.features", "@" + manifest);
+        }
+    }
+
+    /**
+     * Runs a scenario, retrying failures in the same run when -Dretry.count is set.
+     */
+    @Override
+    @Test(groups = "cucumber", description = "Runs Cucumber Scenarios", dataProvider = "scenarios",
+            retryAnalyzer = ScenarioRetryAnalyzer.class)
+    public void runScenario(PickleWrapper pickleWrapper, FeatureWrapper featureWrapper) {
+        AdaptiveConcurrency adaptive = AdaptiveConcurrency.getInstance();
+        if (adaptive == null) {
+            runRow(pickleWrapper, featureWrapper);
+            return;
+        }
+        // -Dworkers=auto: wait for a free worker slot
+        try {
+            adaptive.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a worker slot", e);
+        }
+        try {
+            runRow(pickleWrapper, featureWrapper);
+        } finally {
+            if (adaptive.release()) {
+                // More threads hold a driver than the worker limit: free this one's memory
+                frameWorkConfig.closeCurrentThread();
+            }
+        }
+    }
+
+    private void runRow(PickleWrapper pickleWrapper, FeatureWrapper featureWrapper) {
+        if (!(pickleWrapper instanceof ExcelRowPickle excelRow)) {
+            super.runScenario(pickleWrapper, featureWrapper);
+            return;
+        }
+        excelRow.bind();
+        try {
+            super.runScenario(pickleWrapper, featureWrapper);
+        } finally {
+            ExcelRowPickle.unbind();
+        }
+    }
+
+    /**
+     * Orders scenarios longest-first and keeps only this shard's share,
+     * based on the durations recorded by previous runs.
+     * With -Dimpact.base or -Dimpact.files, only scenarios affected by the change are kept.
+     * Scenarios tagged @excel:file.xlsx:Sheet run once per Excel data row.
+     */
+    @Override
+    @DataProvider
+    public Object[][] scenarios() {
+        List<Object[]> rows = Arrays.asList(super.scenarios());
+
+        if (ImpactSelector.isEnabled()) {
+            Map<String, List<String>> affected = new ImpactSelector(FeatureIndex.getInstance())
+                    .select(ImpactSelector.changedFilesFromSystemProperties());
+            affected.forEach((id, reasons) -> System.out.println("Selected " + id + " because " + reasons));
+            rows = rows.stream().filter(row -> affected.containsKey(scenarioId(row))).toList();
+        }
+
+        rows = ExcelRowPickle.expand(rows);
+
+        List<Object[]> scheduled = ScenarioScheduler.fromSystemProperties()
+                .schedule(rows, CucumberRunnerTest::scenarioId);
+        return scheduled.toArray(new Object[0][]);
+    }
+
+    private static String scenarioId(Object[] row) {
+        if (row[0] instanceof ExcelRowPickle excelRow) {
+            return excelRow.getScenarioId();
+        }
+        Pickle pickle = ((PickleWrapper) row[0]).getPickle();
+        return ScenarioTimingStore.scenarioId(pickle.getUri(), pickle.getLine());
+    }
 }
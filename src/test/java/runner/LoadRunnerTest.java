@@ -0,0 +1,56 @@
+package runner;
+
+import execution.LoadTest;
+import io.cucumber.testng.*;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Replays one scenario as concurrent virtual users, see {@link LoadTest}.
+ * Run with: mvn test -Pload -Dload.users=20 -Dload.scenario=@removingCart -Denv=fixture
+ */
+@CucumberOptions(
+        features = "src/test/resources/features",
+        glue = {"steps", "hooks"},
+        plugin = {
+                "execution.LoadStats:target/load-report.json"
+        },
+        monochrome = true,
+        objectFactory = ScenarioObjectFactory.class
+)
+public class LoadRunnerTest {
+
+    private TestNGCucumberRunner cucumber;
+
+    @BeforeClass(alwaysRun = true)
+    public void setUpClass() {
+        cucumber = new TestNGCucumberRunner(this.getClass());
+    }
+
+    @Test(groups = "load", description = "Replays a scenario as virtual users")
+    public void runLoad() {
+        LoadTest load = LoadTest.fromSystemProperties();
+        List<Pickle> rows = Arrays.stream(cucumber.provideScenarios())
+                .map(row -> ((PickleWrapper) row[0]).getPickle())
+                .filter(pickle -> load.matches(pickle.getUri(), pickle.getLine(), pickle.getName(), pickle.getTags()))
+                .toList();
+        load.run(rows, pickle -> {
+            try {
+                cucumber.runScenario(pickle);
+            } catch (Throwable t) {
+                throw new RuntimeException(t);
+            }
+        });
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDownClass() {
+        if (cucumber != null) {
+            cucumber.finish();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package runner;
+
+import Initialization.ScenarioContext;
+import io.cucumber.core.backend.ObjectFactory;
+
+/**
+ * Cucumber object factory backed by the scenario-scoped {@link ScenarioContext}.
+ * Step classes and hooks are created lazily per scenario and can receive page objects
+ * through their constructor; everything is discarded when the scenario ends.
+ */
+public class ScenarioObjectFactory implements ObjectFactory {
+
+    @Override
+    public void start() {
+        ScenarioContext.start();
+    }
+
+    @Override
+    public void stop() {
+        ScenarioContext.dispose();
+    }
+
+    @Override
+    public boolean addClass(Class<?> glueClass) {
+        return true;
+    }
+
+    @Override
+    public <T> T getInstance(Class<T> glueClass) {
+        return ScenarioContext.get(glueClass);
+    }
+}
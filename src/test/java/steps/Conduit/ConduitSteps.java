@@ -3,14 +3,21 @@ package steps.Conduit;
 import io.cucumber.java.en.*;
 import pages.Conduit.ConduitPage;
 import org.testng.Assert;
+import steps.Performance.PerformanceSteps;
 import java.util.UUID;
 
 public class ConduitSteps {
-    ConduitPage conduitPage = new ConduitPage();
-    
+    private final ConduitPage conduitPage;
+    private final PerformanceSteps performance;
+
     private String createdArticleTitle;
     private String createdArticleBody;
     private String createdArticleDescription;
+
+    public ConduitSteps(ConduitPage conduitPage, PerformanceSteps performance) {
+        this.conduitPage = conduitPage;
+        this.performance = performance;
+    }
     
     @Given("I navigate to the Conduit application")
     public void i_navigate_to_conduit() {
@@ -114,6 +121,16 @@ public class ConduitSteps {
         Assert.assertEquals(firstTitle, createdArticleTitle, "First article in feed does not match created article");
     }
 
+    @Then("the feed should render {int} articles within {int} ms")
+    public void the_feed_should_render_articles_within(int articles, int budgetMs) {
+        performance.verify("feed " + articles + " articles", conduitPage.measureFeedRender(articles), budgetMs, 0);
+    }
+
+    @Then("the feed should render {int} articles within {int} ms at p{int}")
+    public void the_feed_should_render_articles_within_at_percentile(int articles, int budgetMs, int percentile) {
+        performance.verify("feed " + articles + " articles", conduitPage.measureFeedRender(articles), budgetMs, percentile);
+    }
+
     @When("I click on the newly created article in the feed")
     public void i_click_created_article() {
         conduitPage.clickFirstArticle();
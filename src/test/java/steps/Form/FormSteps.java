@@ -7,7 +7,11 @@ import java.io.IOException;
 
 public class FormSteps {
 
-    Form Form = new Form();
+    private final Form Form;
+
+    public FormSteps(Form Form) {
+        this.Form = Form;
+    }
 
     @Given("I navigate to the QA Playground homepage")
     public void iNavigateToTheQAPlaygroundHomepage() throws IOException {
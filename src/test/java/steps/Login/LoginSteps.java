@@ -1,13 +1,20 @@
 package steps.Login;
 
+import io.cucumber.datatable.DataTable;
 import io.cucumber.java.en.*;
 import pages.HomePage.Login;
+import utilze.ExcelData;
 
 import java.io.IOException;
+import java.util.Map;
 
 public class LoginSteps {
 
-    Login login = new Login();
+    private final Login login;
+
+    public LoginSteps(Login login) {
+        this.login = login;
+    }
 
     @Given("user should be on the HomePage")
     public void userShouldBeOnTheHomePage() {
@@ -16,12 +23,12 @@ public class LoginSteps {
 
     @When("user enter the {string} Email in the Email Address field")
     public void userEnterTheEmailInTheEmailAddressField(String Value) {
-        login.EnterTheEmailAddress(Value);
+        login.EnterTheEmailAddress(ExcelData.resolve(Value));
     }
 
     @And("user enter the {string} password in the password field")
     public void userEnterThePasswordInThePasswordField(String Value) {
-        login.EnterThePassword(Value);
+        login.EnterThePassword(ExcelData.resolve(Value));
     }
 
 
@@ -37,11 +44,34 @@ public class LoginSteps {
 
     @Then("user should see the error message {string}")
     public void userShouldSeeTheErrorMessage(String Message) {
-        login.validateErrorMessage(Message);
+        login.validateErrorMessage(ExcelData.resolve(Message));
     }
 
     @And("user should not land on the overview page")
     public void userShouldNotLandOnTheOverviewPage() {
         login.userShouldNotLandOnOverviewPage();
     }
+
+    @Then("every invalid login should show its error messages:")
+    public void everyInvalidLoginShouldShowItsErrorMessages(DataTable table) {
+        table.asMaps().forEach(this::verifyInvalidLogin);
+    }
+
+    @Then("every invalid login in {string} should show its error messages")
+    public void everyInvalidLoginInShouldShowItsErrorMessages(String source) {
+        ExcelData.Source sheet = ExcelData.Source.parse(source);
+        ExcelData.forEachRow(sheet.file(), sheet.sheet(), this::verifyInvalidLogin);
+    }
+
+    /**
+     * Logs in with one row's credentials and checks both error messages.
+     */
+    private void verifyInvalidLogin(Map<String, String> row) {
+        login.EnterTheEmailAddress(row.get("Email Address"));
+        login.EnterThePassword(row.get("Password"));
+        login.clickOnTheButton();
+        login.validateErrorMessage(row.get("Email Error Message"));
+        login.validateErrorMessage(row.get("Password Error Message"));
+        login.userShouldNotLandOnOverviewPage();
+    }
 }
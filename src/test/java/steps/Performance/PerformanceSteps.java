@@ -0,0 +1,95 @@
+package steps.Performance;
+
+import execution.ExcelRowPickle;
+import execution.ScenarioTimingStore;
+import io.cucumber.java.Before;
+import io.cucumber.java.Scenario;
+import io.cucumber.java.en.*;
+import utilze.PageTimer;
+
+/**
+ * Reusable timing assertions, measured from the last click or navigation
+ * (or from "I start timing"):
+ *
+ *   When the user clicks on the "Cart" option from the navbar
+ *   Then the cart page should load within 1500 ms
+ *
+ * In a Scenario Outline, "... at p90" asserts the 90th percentile over all Examples rows.
+ * Measurements under a throttling profile (@throttle:name) are labelled with the profile.
+ */
+public class PerformanceSteps {
+
+    private final PageTimer timer;
+    private Scenario scenario;
+
+    public PerformanceSteps(PageTimer timer) {
+        this.timer = timer;
+    }
+
+    @Before
+    public void rememberScenario(Scenario scenario) {
+        this.scenario = scenario;
+    }
+
+    @When("I start timing {string}")
+    public void iStartTiming(String label) {
+        timer.mark(label);
+    }
+
+    @Then("the {} page should load within {int} ms")
+    public void thePageShouldLoadWithin(String page, int budgetMs) {
+        verify(page + " page load", timer.measureLoad(), budgetMs, 0);
+    }
+
+    @Then("the {} page should load within {int} ms at p{int}")
+    public void thePageShouldLoadWithinAtPercentile(String page, int budgetMs, int percentile) {
+        verify(page + " page load", timer.measureLoad(), budgetMs, percentile);
+    }
+
+    @Then("{string} should be visible within {int} ms")
+    public void shouldBeVisibleWithin(String selector, int budgetMs) {
+        verify(selector + " visible", timer.measureVisible(selector, 1), budgetMs, 0);
+    }
+
+    @Then("{string} should be visible within {int} ms at p{int}")
+    public void shouldBeVisibleWithinAtPercentile(String selector, int budgetMs, int percentile) {
+        verify(selector + " visible", timer.measureVisible(selector, 1), budgetMs, percentile);
+    }
+
+    @Then("{int} of {string} should be visible within {int} ms")
+    public void countShouldBeVisibleWithin(int count, String selector, int budgetMs) {
+        verify(count + " x " + selector + " visible", timer.measureVisible(selector, count), budgetMs, 0);
+    }
+
+    @Then("the response to {string} should arrive within {int} ms")
+    public void theResponseShouldArriveWithin(String urlFragment, int budgetMs) {
+        verify("response " + urlFragment, timer.measureResponse(urlFragment), budgetMs, 0);
+    }
+
+    @Then("the response to {string} should arrive within {int} ms at p{int}")
+    public void theResponseShouldArriveWithinAtPercentile(String urlFragment, int budgetMs, int percentile) {
+        verify("response " + urlFragment, timer.measureResponse(urlFragment), budgetMs, percentile);
+    }
+
+    /**
+     * Logs the measurement to the report and asserts it, or its percentile over the
+     * outline's rows when percentile > 0. Used by page-specific timing steps too.
+     */
+    public void verify(String label, double ms, int budgetMs, int percentile) {
+        String throttling = timer.getThrottling();
+        if (throttling != null) {
+            // Throttled and unthrottled runs of an outline form separate percentile series
+            label = label + " [" + throttling.split(" ")[0] + "]";
+        }
+        scenario.log(String.format("%s: %d ms after %s (budget %d ms%s%s)", label, Math.round(ms),
+                timer.getStartLabel(), budgetMs, percentile > 0 ? " at p" + percentile : "",
+                throttling != null ? ", throttling " + throttling : ""));
+        if (percentile <= 0) {
+            timer.assertWithin(label, ms, budgetMs);
+            return;
+        }
+        String sampleId = ExcelRowPickle.currentScenarioId(
+                ScenarioTimingStore.scenarioId(scenario.getUri(), scenario.getLine()));
+        timer.assertPercentileWithin(scenario.getUri(), scenario.getLine(), sampleId, label, ms, percentile, budgetMs);
+    }
+}
@@ -0,0 +1,46 @@
+package steps.Visual;
+
+import io.cucumber.java.en.Then;
+import utilze.VisualComparator;
+import utilze.playwright;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Visual checks against screenshot baselines kept per environment and browser:
+ *
+ *   Then the page should look like the "DemoBlaze cart page" baseline
+ *   Then the page should look like the "DemoBlaze cart page" baseline ignoring "#tbodyid img, .carousel"
+ *
+ * Ignored selectors are masked in the screenshot; "... ignoring region" takes x,y,width,height
+ * in page pixels. A missing baseline skips the scenario (visual_missing_baseline=fail fails it);
+ * -Dvisual_update=true records the baselines.
+ */
+public class VisualSteps {
+
+    private final playwright pm;
+
+    public VisualSteps(playwright pm) {
+        this.pm = pm;
+    }
+
+    @Then("the page should look like the {string} baseline")
+    public void thePageShouldLookLikeTheBaseline(String name) {
+        pm.assertScreenshotMatches(name);
+    }
+
+    @Then("the page should look like the {string} baseline ignoring {string}")
+    public void thePageShouldLookLikeTheBaselineIgnoring(String name, String selectors) {
+        pm.assertScreenshotMatches(name, split(selectors), List.of());
+    }
+
+    @Then("the page should look like the {string} baseline ignoring region {string}")
+    public void thePageShouldLookLikeTheBaselineIgnoringRegion(String name, String region) {
+        pm.assertScreenshotMatches(name, List.of(), List.of(VisualComparator.Region.parse(region)));
+    }
+
+    private static List<String> split(String selectors) {
+        return Arrays.stream(selectors.split(",")).map(String::trim).filter(s -> !s.isEmpty()).toList();
+    }
+}
@@ -9,7 +9,11 @@ import pages.DemoBlaze_cart.cart;
 
 public class cartSteps {
 
-    cart cart = new cart();
+    private final cart cart;
+
+    public cartSteps(cart cart) {
+        this.cart = cart;
+    }
 
     @Given("I navigate to the HomePage of DemoBlaze")
     public void iNavigateToTheHomePageOfDemoBlaze() {
@@ -0,0 +1,91 @@
+package utilze;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+import static org.testng.Assert.*;
+
+/**
+ * Unit tests of the baseline policy: a missing baseline fails and only visual_update records.
+ */
+public class VisualBaselinesTest {
+
+    private Path dir;
+
+    @BeforeMethod
+    public void createBaselineDir() throws IOException {
+        dir = Files.createTempDirectory("visual-baselines");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void deleteBaselineDir() throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void missingBaselineFailsWithoutWritingOne() throws IOException {
+        VisualBaselines.Check check = baselines(false).check("Cart page", png(Color.WHITE), List.of());
+
+        assertEquals(check.outcome(), VisualBaselines.Outcome.MISSING);
+        assertFalse(check.isMatch());
+        assertTrue(Files.exists(check.actual()), "Screenshot kept in " + check.actual());
+        try (Stream<Path> files = Files.walk(dir)) {
+            assertEquals(files.filter(Files::isRegularFile).count(), 0L);
+        }
+    }
+
+    @Test
+    public void missingBaselineSkipsUnlessConfiguredToFail() {
+        assertFalse(baselines(false).isFailOnMissing());
+
+        Properties prop = new Properties();
+        prop.setProperty("visual_missing_baseline", "fail");
+        assertTrue(new VisualBaselines(prop, "demoblaze/chromium").isFailOnMissing());
+    }
+
+    @Test
+    public void updateRecordsTheBaselineThatLaterChecksCompareWith() throws IOException {
+        VisualBaselines.Check recorded = baselines(true).check("Cart page", png(Color.WHITE), List.of());
+        assertEquals(recorded.outcome(), VisualBaselines.Outcome.RECORDED);
+        assertTrue(Files.exists(dir.resolve("demoblaze/chromium/cart-page.png")));
+        assertTrue(Files.exists(dir.resolve("demoblaze/chromium/cart-page.tiles")));
+
+        assertEquals(baselines(false).check("Cart page", png(Color.WHITE), List.of()).outcome(),
+                VisualBaselines.Outcome.MATCH);
+        assertEquals(baselines(false).check("Cart page", png(Color.BLACK), List.of()).outcome(),
+                VisualBaselines.Outcome.MISMATCH);
+    }
+
+    private VisualBaselines baselines(boolean update) {
+        Properties prop = new Properties();
+        prop.setProperty("visual_baseline_dir", dir.toString());
+        prop.setProperty("visual_update", String.valueOf(update));
+        return new VisualBaselines(prop, "demoblaze/chromium");
+    }
+
+    private static byte[] png(Color color) throws IOException {
+        BufferedImage image = new BufferedImage(64, 32, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(color);
+        graphics.fillRect(0, 0, 64, 32);
+        graphics.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
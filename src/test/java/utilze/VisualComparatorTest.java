@@ -0,0 +1,125 @@
+package utilze;
+
+import org.testng.annotations.Test;
+
+import java.awt.*;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.testng.Assert.*;
+
+/**
+ * Unit tests of the tile comparison and its anti-aliasing detection, on images drawn with Java2D.
+ */
+public class VisualComparatorTest {
+
+    private static final int WIDTH = 200;
+    private static final int HEIGHT = 48;
+
+    // No different pixel allowed, so every counted pixel fails the comparison
+    private final VisualComparator comparator = new VisualComparator(16, 16, 0.0);
+
+    @Test
+    public void identicalScreenshotsMatchWithoutDecodingTheBaseline() {
+        VisualComparator.Pixels baseline = render("Total 360", 0);
+        VisualComparator.Pixels actual = render("Total 360", 0);
+
+        VisualComparator.Result result = compare(actual, baseline, () -> {
+            throw new AssertionError("Baseline pixels decoded although all tile hashes matched");
+        });
+
+        assertTrue(result.match(), result.describe());
+        assertEquals(result.changedTiles(), 0);
+        assertNull(result.diff());
+    }
+
+    @Test
+    public void ignoreRegionsAreLeftOut() {
+        VisualComparator.Pixels baseline = render("Total 360", 0);
+        VisualComparator.Pixels actual = render("Total 790", 0);
+        List<VisualComparator.Region> ignore = List.of(VisualComparator.Region.parse("0,0,110,48"));
+        VisualComparator.mask(baseline, ignore);
+        VisualComparator.mask(actual, ignore);
+
+        VisualComparator.Result result = compare(actual, baseline, () -> baseline);
+
+        assertTrue(result.match(), result.describe());
+        assertEquals(result.changedTiles(), 0);
+    }
+
+    @Test
+    public void antiAliasedEdgeOfASubPixelShiftMatches() {
+        VisualComparator.Pixels baseline = render("", 0);
+        VisualComparator.Pixels actual = render("", 0.3);
+
+        VisualComparator.Result result = compare(actual, baseline, () -> baseline);
+
+        assertTrue(result.match(), result.describe());
+    }
+
+    @Test
+    public void onePixelShiftIsADifference() {
+        VisualComparator.Pixels baseline = render("", 0);
+        VisualComparator.Pixels actual = render("", 1);
+
+        VisualComparator.Result result = compare(actual, baseline, () -> baseline);
+
+        assertFalse(result.match(), result.describe());
+        // The box's left and right edge, 20 rows each
+        assertEquals(result.diffPixels(), 40);
+        assertNotNull(result.diff());
+    }
+
+    @Test
+    public void changedTextIsADifference() {
+        VisualComparator.Pixels baseline = render("Total 360", 0);
+        VisualComparator.Pixels actual = render("Total 790", 0);
+
+        VisualComparator.Result result = compare(actual, baseline, () -> baseline);
+
+        assertFalse(result.match(), result.describe());
+        assertTrue(result.diffPixels() > 0);
+    }
+
+    @Test
+    public void sizeMismatchFailsWithoutComparingPixels() {
+        VisualComparator.Pixels baseline = render("Total 360", 0);
+        BufferedImage taller = new BufferedImage(WIDTH, HEIGHT + 2, BufferedImage.TYPE_INT_ARGB);
+        VisualComparator.Pixels actual = VisualComparator.Pixels.of(taller);
+
+        VisualComparator.Result result = comparator.compare(actual, comparator.tileHashes(actual), baseline.width(),
+                baseline.height(), comparator.tileHashes(baseline), () -> {
+                    throw new AssertionError("Baseline pixels decoded for images of different size");
+                });
+
+        assertFalse(result.match());
+        assertEquals(result.reason(), "size 200x50 differs from baseline 200x48");
+        assertNull(result.diff());
+    }
+
+    private VisualComparator.Result compare(VisualComparator.Pixels actual, VisualComparator.Pixels baseline,
+                                            Supplier<VisualComparator.Pixels> baselinePixels) {
+        return comparator.compare(actual, comparator.tileHashes(actual), baseline.width(), baseline.height(),
+                comparator.tileHashes(baseline), baselinePixels);
+    }
+
+    /**
+     * Anti-aliased text and a 40x20 box on white, shifted right by dx pixels.
+     */
+    private static VisualComparator.Pixels render(String text, double dx) {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, WIDTH, HEIGHT);
+        graphics.setColor(Color.BLACK);
+        graphics.setFont(new Font(Font.SANS_SERIF, Font.BOLD, 20));
+        graphics.drawString(text, 10, 30);
+        graphics.fill(new Rectangle2D.Double(120 + dx, 10, 40, 20));
+        graphics.dispose();
+        return VisualComparator.Pixels.of(image);
+    }
+}
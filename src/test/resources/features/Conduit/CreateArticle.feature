@@ -24,7 +24,8 @@ Feature: Create and Validate Article
     And I should see the comments section
 
     When I go back to the Home page
-    Then I should see the "Global Feed" tab active
+    Then the feed should render 5 articles within 3000 ms
+    And I should see the "Global Feed" tab active
     And the first article in the feed should match the created article
 
     When I click on the newly created article in the feed
@@ -24,10 +24,30 @@ Feature: Forms Page End-to-End Validation
     And the popup should automatically disappear after a short duration
 
     When the user clicks on the "Cart" option from the navbar
-    Then the user should land on the "cart page"
+    Then the cart page should load within 5000 ms
+    And the user should land on the "cart page"
     And the cart should contain the same laptop which was memorized
 
     When the user clicks the "Delete" hyperlink next to the product
     Then the laptop should be removed from the cart
     And the cart page should not contain any products
 
+  @visual
+  Scenario: Product and cart pages look like their baselines
+    When the user clicks on the "Phones" category in the categories section
+    Then the list of laptops should be displayed
+
+    When the user clicks on the "third" laptop from the list
+    Then the user should land on the "Phones detail page"
+    And the page should look like the "DemoBlaze product page" baseline
+
+    When the user clicks on the "Add to cart" button
+    Then a popup with text "Product added" should be visible
+    And the popup should automatically disappear after a short duration
+
+    When the user clicks on the "Cart" option from the navbar
+    Then the user should land on the "cart page"
+    And the page should look like the "DemoBlaze cart page" baseline ignoring "#tbodyid img"
+
+    When the user clicks the "Delete" hyperlink next to the product
+    Then the cart page should not contain any products
@@ -41,3 +41,25 @@ Feature: From Page - To Test Login
 #      | valid               | without lower caps   | null                             | Password must contain at least one lowercase letter                            |
 #      | without at the rate | without capital caps | Email must contain '@' symbol    | Password must contain at least one uppercase letter                            |
 
+# -----------------------------------------------------------------
+#           Login with invalid cred's from Excel
+# -----------------------------------------------------------------
+  @LoginInvalidCases @excel:Data/login-permutations.xlsx:Invalid
+  Scenario: To Test Login with invalid cred's from Excel
+    When user enter the "<Email Address>" Email in the Email Address field
+    And user enter the "<Password>" password in the password field
+    And click on the login button
+    Then user should see the error message "<Email Error Message>"
+    Then user should see the error message "<Password Error Message>"
+    And user should not land on the overview page
+
+  @LoginInvalidCases
+  Scenario: To Test all invalid cred's of the Excel sheet in one scenario
+    Then every invalid login in "Data/login-permutations.xlsx:Invalid" should show its error messages
+
+  @LoginInvalidCases
+  Scenario: To Test invalid cred's from a data table
+    Then every invalid login should show its error messages:
+      | Email Address       | Password            | Email Error Message           | Password Error Message                               |
+      | without at the rate | without at the rate | Email must contain '@' symbol | Password must contain at least one special character |
+
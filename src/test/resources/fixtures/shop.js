@@ -0,0 +1,64 @@
+// Fixture copy of the DemoBlaze shop: products from products.json, cart in localStorage
+const CART_KEY = 'fixture-cart';
+
+function loadProducts() {
+  return fetch('products.json').then(response => response.json());
+}
+
+function readCart() {
+  return JSON.parse(localStorage.getItem(CART_KEY) || '[]');
+}
+
+function writeCart(cart) {
+  localStorage.setItem(CART_KEY, JSON.stringify(cart));
+}
+
+function showCategory(cat) {
+  loadProducts().then(products => {
+    const list = document.getElementById('tbodyid');
+    list.innerHTML = '';
+    products.filter(p => !cat || p.cat === cat).forEach(p => {
+      const card = document.createElement('div');
+      card.className = 'card';
+      card.innerHTML = '<h4 class="card-title"><a href="prod.html?idp_=' + p.id + '">' + p.title + '</a></h4>'
+          + '<h5>$' + p.price + '</h5>';
+      list.appendChild(card);
+    });
+  });
+  return false;
+}
+
+function showProduct() {
+  const id = Number(new URLSearchParams(location.search).get('idp_'));
+  loadProducts().then(products => {
+    const product = products.find(p => p.id === id);
+    document.querySelector('h2.name').textContent = product.title;
+    document.querySelector('h3.price-container').textContent = '$' + product.price;
+    document.getElementById('add').onclick = () => {
+      const cart = readCart();
+      cart.push({ key: Date.now() + '-' + cart.length, id: product.id });
+      writeCart(cart);
+      setTimeout(() => alert('Product added'), 50);
+      return false;
+    };
+  });
+}
+
+function showCart() {
+  loadProducts().then(products => {
+    const rows = document.getElementById('tbodyid');
+    rows.innerHTML = '';
+    readCart().forEach(item => {
+      const product = products.find(p => p.id === item.id);
+      const row = document.createElement('tr');
+      row.innerHTML = '<td>' + product.title + '</td><td>' + product.price + '</td>'
+          + '<td><a href="#">Delete</a></td>';
+      row.querySelector('a').onclick = () => {
+        writeCart(readCart().filter(entry => entry.key !== item.key));
+        showCart();
+        return false;
+      };
+      rows.appendChild(row);
+    });
+  });
+}